@@ -0,0 +1,44 @@
+package de.chrgroth.smartcron.benchmark;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import de.chrgroth.smartcron.api.Smartcron;
+import de.chrgroth.smartcron.api.SmartcronExecutionContext;
+
+/**
+ * Smartcron doing no work at all, rescheduling itself using a fixed delay.
+ *
+ * @author Christian Groth
+ */
+public class BenchmarkSmartcron implements Smartcron {
+
+    private final long delay;
+    private final int historySize;
+    private final boolean compactHistory;
+
+    public BenchmarkSmartcron(long delay) {
+        this(delay, DEFAULT_MAX_EXECUTION_HISTORY_SIZE, false);
+    }
+
+    public BenchmarkSmartcron(long delay, int historySize, boolean compactHistory) {
+        this.delay = delay;
+        this.historySize = historySize;
+        this.compactHistory = compactHistory;
+    }
+
+    @Override
+    public LocalDateTime run(SmartcronExecutionContext context) {
+        return delay(delay, ChronoUnit.MILLIS);
+    }
+
+    @Override
+    public int maxExecutionHistorySize() {
+        return historySize;
+    }
+
+    @Override
+    public boolean compactExecutionHistory() {
+        return compactHistory;
+    }
+}
@@ -0,0 +1,42 @@
+package de.chrgroth.smartcron.benchmark;
+
+import de.chrgroth.smartcron.scheduler.SmartcronScheduler;
+import de.chrgroth.smartcron.scheduler.SmartcronSchedulerLane;
+import de.chrgroth.smartcron.scheduler.SmartcronTask;
+
+/**
+ * Scheduler never executing any task on its own, but keeping the last scheduled task to be run by the benchmark thread.
+ *
+ * @author Christian Groth
+ */
+public class CapturingScheduler implements SmartcronScheduler, SmartcronSchedulerLane {
+
+    private SmartcronTask task;
+
+    @Override
+    public SmartcronSchedulerLane createLane(String name) {
+        return this;
+    }
+
+    @Override
+    public void schedule(SmartcronTask task, long delay) {
+        this.task = task;
+    }
+
+    /**
+     * Runs the last scheduled task, which schedules the next one.
+     */
+    public void runScheduled() {
+        task.run();
+    }
+
+    @Override
+    public void close() {
+        task = null;
+    }
+
+    @Override
+    public void shutdown() {
+        task = null;
+    }
+}
@@ -0,0 +1,49 @@
+package de.chrgroth.smartcron.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.chrgroth.smartcron.api.SmartcronExpression;
+
+/**
+ * Measures next fire date computation of compiled cron expressions, from frequent expressions to ones carrying over several fields.
+ *
+ * @author Christian Groth
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+
+    @Param({ "* * * * * *", "0 0/15 8-18 ? * MON-FRI", "0 0 12 29 FEB *" })
+    private String expression;
+
+    private SmartcronExpression compiled;
+    private LocalDateTime after;
+
+    @Setup
+    public void setUp() {
+        compiled = SmartcronExpression.parse(expression);
+        after = LocalDateTime.of(2024, 3, 1, 19, 0, 0);
+    }
+
+    @Benchmark
+    public LocalDateTime next() {
+        return compiled.next(after);
+    }
+}
@@ -0,0 +1,65 @@
+package de.chrgroth.smartcron.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.chrgroth.smartcron.Smartcrons;
+import de.chrgroth.smartcron.model.SmartcronMetadata;
+
+/**
+ * Measures metadata throughput while all smartcrons are executed concurrently every millisecond.
+ *
+ * @author Christian Groth
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Threads(2)
+@Fork(1)
+public class MetadataBenchmark {
+
+    @Param({ "100", "1000" })
+    private int count;
+
+    @Param({ "100", "1000" })
+    private int historySize;
+
+    @Param({ "pooled", "timing-wheel" })
+    private String engine;
+
+    private Smartcrons smartcrons;
+
+    @Setup
+    public void setUp() {
+        smartcrons = new Smartcrons(ScheduleBenchmark.createScheduler(engine));
+        for (int i = 0; i < count; i++) {
+            smartcrons.schedule(new BenchmarkSmartcron(1L, historySize, false));
+        }
+    }
+
+    @Benchmark
+    public Set<SmartcronMetadata> getMetadata() {
+        return smartcrons.getMetadata();
+    }
+
+    @TearDown
+    public void tearDown() {
+        smartcrons.shutdown();
+    }
+}
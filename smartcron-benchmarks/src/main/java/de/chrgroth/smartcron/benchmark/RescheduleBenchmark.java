@@ -0,0 +1,62 @@
+package de.chrgroth.smartcron.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.chrgroth.smartcron.Smartcrons;
+
+/**
+ * Measures steady state throughput of a single smartcron executing and rescheduling itself, i.e. the path through
+ * <code>SmartcronHandler.smartcronExecutionCallback</code> including statistics and history updates. Tasks are run directly on the benchmark thread,
+ * so no scheduler overhead is included.
+ *
+ * @author Christian Groth
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RescheduleBenchmark {
+
+    private static final long ONE_HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Param({ "10", "1000", "100000" })
+    private int historySize;
+
+    @Param({ "false", "true" })
+    private boolean compactHistory;
+
+    private CapturingScheduler scheduler;
+    private Smartcrons smartcrons;
+
+    @Setup
+    public void setUp() {
+        scheduler = new CapturingScheduler();
+        smartcrons = new Smartcrons(scheduler);
+        smartcrons.schedule(new BenchmarkSmartcron(ONE_HOUR, historySize, compactHistory));
+    }
+
+    @Benchmark
+    public void executeAndReschedule() {
+        scheduler.runScheduled();
+    }
+
+    @TearDown
+    public void tearDown() {
+        smartcrons.shutdown();
+    }
+}
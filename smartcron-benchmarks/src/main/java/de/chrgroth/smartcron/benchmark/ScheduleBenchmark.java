@@ -0,0 +1,89 @@
+package de.chrgroth.smartcron.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.chrgroth.smartcron.Smartcrons;
+import de.chrgroth.smartcron.api.Smartcron;
+import de.chrgroth.smartcron.scheduler.PooledSmartcronScheduler;
+import de.chrgroth.smartcron.scheduler.SmartcronScheduler;
+import de.chrgroth.smartcron.scheduler.TimerSmartcronScheduler;
+import de.chrgroth.smartcron.scheduler.TimingWheelSmartcronScheduler;
+
+/**
+ * Measures the time needed to schedule a number of smartcrons one by one and in bulk, including their initial execution being planned.
+ *
+ * @author Christian Groth
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ScheduleBenchmark {
+
+    private static final long ONE_HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Param({ "100", "1000", "10000" })
+    private int count;
+
+    @Param({ "pooled", "timing-wheel", "timer" })
+    private String engine;
+
+    private Smartcrons smartcrons;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        smartcrons = new Smartcrons(createScheduler(engine));
+    }
+
+    static SmartcronScheduler createScheduler(String engine) {
+        switch (engine) {
+            case "timing-wheel":
+                return new TimingWheelSmartcronScheduler();
+            case "timer":
+                return new TimerSmartcronScheduler();
+            default:
+                return new PooledSmartcronScheduler();
+        }
+    }
+
+    @Benchmark
+    public Smartcrons schedule() {
+        for (int i = 0; i < count; i++) {
+            smartcrons.schedule(new BenchmarkSmartcron(ONE_HOUR));
+        }
+        return smartcrons;
+    }
+
+    @Benchmark
+    public Smartcrons scheduleAll() {
+        List<Smartcron> all = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            all.add(new BenchmarkSmartcron(ONE_HOUR));
+        }
+        smartcrons.scheduleAll(all);
+        return smartcrons;
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        smartcrons.shutdown();
+    }
+}
@@ -0,0 +1,188 @@
+package de.chrgroth.smartcron;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.chrgroth.smartcron.model.SmartcronExecution;
+
+/**
+ * Compact fixed capacity execution history storing all values in primitive columns. Dates are kept as epoch milliseconds, durations and lags as
+ * nanoseconds, modes and errors as indexes into a table of distinct values. {@link SmartcronExecution} instances are only created when
+ * {@link #toList()} is called, so no objects are retained per execution. Not thread safe.
+ *
+ * @author Christian Groth
+ */
+class ColumnarHistory implements SmartcronHistory {
+
+    private static final int INITIAL_SIZE = 16;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final int NO_VALUE = -1;
+    private static final int DEACTIVATED = -2;
+    private static final int MAX_VALUES_FACTOR = 4;
+
+    private final int capacity;
+    private long[] versions;
+    private long[] scheduled;
+    private long[] started;
+    private long[] nextExecution;
+    private long[] startLag;
+    private long[] queueWait;
+    private long[] smoothingOffset;
+    private long[] duration;
+    private int[] mode;
+    private int[] error;
+    private int head = -1;
+    private int size;
+
+    private final List<String> values = new ArrayList<>();
+    private final Map<String, Integer> valueIndexes = new HashMap<>();
+
+    ColumnarHistory(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        allocate(Math.min(this.capacity, INITIAL_SIZE));
+    }
+
+    private void allocate(int length) {
+        versions = versions == null ? new long[length] : Arrays.copyOf(versions, length);
+        scheduled = scheduled == null ? new long[length] : Arrays.copyOf(scheduled, length);
+        started = started == null ? new long[length] : Arrays.copyOf(started, length);
+        nextExecution = nextExecution == null ? new long[length] : Arrays.copyOf(nextExecution, length);
+        startLag = startLag == null ? new long[length] : Arrays.copyOf(startLag, length);
+        queueWait = queueWait == null ? new long[length] : Arrays.copyOf(queueWait, length);
+        smoothingOffset = smoothingOffset == null ? new long[length] : Arrays.copyOf(smoothingOffset, length);
+        duration = duration == null ? new long[length] : Arrays.copyOf(duration, length);
+        mode = mode == null ? new int[length] : Arrays.copyOf(mode, length);
+        error = error == null ? new int[length] : Arrays.copyOf(error, length);
+    }
+
+    @Override
+    public void add(SmartcronExecution execution, long version) {
+
+        // capacity guard
+        if (capacity == 0) {
+            return;
+        }
+
+        // grow until capacity is reached
+        if (size == mode.length && size < capacity) {
+            allocate(Math.min(capacity, size * 2));
+        }
+
+        // add as newest entry
+        head = (head + 1) % mode.length;
+        if (size < mode.length) {
+            size++;
+        }
+        versions[head] = version;
+        mode[head] = NO_VALUE;
+        error[head] = NO_VALUE;
+        if (execution.isDeactivated()) {
+            scheduled[head] = NO_DATE;
+            started[head] = NO_DATE;
+            nextExecution[head] = NO_DATE;
+            startLag[head] = 0L;
+            queueWait[head] = 0L;
+            smoothingOffset[head] = 0L;
+            duration[head] = 0L;
+            mode[head] = DEACTIVATED;
+            error[head] = NO_VALUE;
+        } else {
+            scheduled[head] = toEpochMillis(execution.getScheduled());
+            started[head] = toEpochMillis(execution.getStarted());
+            nextExecution[head] = toEpochMillis(execution.getNextExecution());
+            startLag[head] = execution.getStartLag();
+            queueWait[head] = execution.getQueueWait();
+            smoothingOffset[head] = execution.getSmoothingOffset();
+            duration[head] = execution.getDurationNanos();
+            mode[head] = intern(execution.getMode());
+            error[head] = intern(execution.getError());
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime date) {
+        return date == null ? NO_DATE : date.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime fromEpochMillis(long epochMillis) {
+        return epochMillis == NO_DATE ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private int intern(String value) {
+
+        // null guard
+        if (value == null) {
+            return NO_VALUE;
+        }
+
+        // lookup
+        Integer index = valueIndexes.get(value);
+        if (index != null) {
+            return index;
+        }
+
+        // drop values no longer referenced, at most two values per entry are alive so compaction is amortized
+        if (values.size() >= MAX_VALUES_FACTOR * capacity) {
+            compactValues();
+        }
+        index = values.size();
+        values.add(value);
+        valueIndexes.put(value, index);
+        return index;
+    }
+
+    private void compactValues() {
+        List<String> oldValues = new ArrayList<>(values);
+        values.clear();
+        valueIndexes.clear();
+        for (int i = 0; i < size; i++) {
+            int slot = (head - i + mode.length) % mode.length;
+            mode[slot] = reintern(oldValues, mode[slot]);
+            error[slot] = reintern(oldValues, error[slot]);
+        }
+    }
+
+    private int reintern(List<String> oldValues, int index) {
+        return index < 0 ? index : intern(oldValues.get(index));
+    }
+
+    private String value(int index) {
+        return index < 0 ? null : values.get(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<SmartcronExecution> toList() {
+        return toList(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Override
+    public List<SmartcronExecution> toList(long since, long until) {
+        List<SmartcronExecution> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int slot = (head - i + mode.length) % mode.length;
+            if (versions[slot] <= since) {
+                break;
+            }
+            if (versions[slot] > until) {
+                continue;
+            }
+            if (mode[slot] == DEACTIVATED) {
+                result.add(SmartcronExecution.createDeactivatedMarkerEntry());
+            } else {
+                result.add(new SmartcronExecution(fromEpochMillis(scheduled[slot]), fromEpochMillis(started[slot]), startLag[slot], queueWait[slot],
+                        smoothingOffset[slot], value(mode[slot]), duration[slot], value(error[slot]), fromEpochMillis(nextExecution[slot])));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,78 @@
+package de.chrgroth.smartcron;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.chrgroth.smartcron.model.SmartcronExecution;
+
+/**
+ * Fixed capacity execution history. Adding an execution is O(1), once capacity is reached the oldest execution is overwritten. The backing array grows
+ * up to capacity, so smartcrons with few executions don't allocate the whole capacity upfront. Not thread safe.
+ *
+ * @author Christian Groth
+ */
+class RingBufferHistory implements SmartcronHistory {
+
+    private static final int INITIAL_SIZE = 16;
+
+    private final int capacity;
+    private SmartcronExecution[] executions;
+    private long[] versions;
+    private int head = -1;
+    private int size;
+
+    RingBufferHistory(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        executions = new SmartcronExecution[Math.min(this.capacity, INITIAL_SIZE)];
+        versions = new long[executions.length];
+    }
+
+    @Override
+    public void add(SmartcronExecution execution, long version) {
+
+        // capacity guard
+        if (capacity == 0) {
+            return;
+        }
+
+        // grow until capacity is reached
+        if (size == executions.length && size < capacity) {
+            executions = Arrays.copyOf(executions, Math.min(capacity, size * 2));
+            versions = Arrays.copyOf(versions, executions.length);
+        }
+
+        // add as newest entry
+        head = (head + 1) % executions.length;
+        executions[head] = execution;
+        versions[head] = version;
+        if (size < executions.length) {
+            size++;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<SmartcronExecution> toList() {
+        return toList(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Override
+    public List<SmartcronExecution> toList(long since, long until) {
+        List<SmartcronExecution> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            int slot = (head - i + executions.length) % executions.length;
+            if (versions[slot] <= since) {
+                break;
+            }
+            if (versions[slot] <= until) {
+                result.add(executions[slot]);
+            }
+        }
+        return result;
+    }
+}
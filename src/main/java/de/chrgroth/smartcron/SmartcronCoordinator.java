@@ -0,0 +1,224 @@
+package de.chrgroth.smartcron;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.chrgroth.smartcron.coordination.SmartcronCoordination;
+import de.chrgroth.smartcron.coordination.SmartcronLeaseStore;
+import de.chrgroth.smartcron.coordination.SmartcronMembership;
+import de.chrgroth.smartcron.scheduler.SmartcronSchedulerLane;
+import de.chrgroth.smartcron.scheduler.SmartcronTask;
+
+/**
+ * Decides whether this node executes a smartcron. If sharded, the smartcron must be owned by this node according to a {@link SmartcronHashRing} of all
+ * members. If leased, the lease of the smartcron is acquired from a {@link SmartcronLeaseStore}. Membership is refreshed and held leases are renewed
+ * periodically, off the execution path. Registered handlers are notified if members changed, so they can park or resume their executions. Failures of
+ * the lease store are treated as not holding the lease, so a smartcron is never executed without holding its lease. Failures of the membership keep the
+ * previous ring.
+ *
+ * @author Christian Groth
+ */
+class SmartcronCoordinator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SmartcronCoordinator.class);
+
+    private final SmartcronCoordination coordination;
+    private final SmartcronLeaseStore store;
+    private final SmartcronMembership membership;
+    private final String nodeId;
+    private final SmartcronSchedulerLane lane;
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+    private final Set<SmartcronHandler> handlers = ConcurrentHashMap.newKeySet();
+    private volatile SmartcronHashRing ring = new SmartcronHashRing(Collections.emptySet());
+    private volatile SmartcronTask task;
+    private volatile boolean stopped;
+
+    SmartcronCoordinator(SmartcronCoordination coordination, SmartcronSchedulerLane lane) {
+        this.coordination = coordination;
+        store = coordination.getLeaseStore();
+        membership = coordination.getMembership();
+        nodeId = coordination.getNodeId();
+        this.lane = lane;
+    }
+
+    void start() {
+        refresh();
+        schedule();
+    }
+
+    private void schedule() {
+
+        // stopped guard
+        if (stopped) {
+            return;
+        }
+
+        // schedule next renewal
+        SmartcronTask next = new SmartcronTask() {
+
+            @Override
+            protected void execute() {
+                if (!stopped) {
+                    refresh();
+                    renew();
+                    schedule();
+                }
+            }
+        };
+        task = next;
+        try {
+            lane.schedule(next, coordination.getRenewalInterval());
+        } catch (Exception e) {
+            LOG.error("scheduling smartcron coordination refresh failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sends a membership heartbeat and rebuilds the hash ring if members changed, notifying all registered handlers.
+     */
+    private void refresh() {
+
+        // not sharded
+        if (membership == null) {
+            return;
+        }
+
+        // refresh
+        try {
+            membership.join(nodeId);
+            Set<String> members = membership.getMembers();
+            if (!members.equals(ring.getNodes())) {
+                LOG.info("node " + nodeId + " rebalancing smartcrons across members " + members);
+                ring = new SmartcronHashRing(members);
+                handlers.forEach(SmartcronHandler::ownershipChanged);
+            }
+        } catch (Exception e) {
+            LOG.error("refreshing membership from " + membership + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Registers given handler to be notified if members changed.
+     *
+     * @param handler
+     *            handler
+     */
+    void register(SmartcronHandler handler) {
+        if (membership != null) {
+            handlers.add(handler);
+        }
+    }
+
+    void unregister(SmartcronHandler handler) {
+        handlers.remove(handler);
+    }
+
+    /**
+     * Checks whether given smartcron is owned by this node.
+     *
+     * @param id
+     *            smartcron id
+     * @return true if owned or not sharded, false otherwise
+     */
+    boolean owns(String id) {
+        return membership == null || nodeId.equals(ring.owner(id));
+    }
+
+    /**
+     * Checks whether given smartcron may be executed by this node, acquiring or renewing its lease if needed.
+     *
+     * @param id
+     *            smartcron id
+     * @return true if this node owns the smartcron and holds its lease, false otherwise
+     */
+    boolean acquire(String id) {
+
+        // stopped guard
+        if (stopped) {
+            return false;
+        }
+
+        // shard guard, a lease held from previous ownership is handed over to the new owner
+        if (!owns(id)) {
+            release(id);
+            return false;
+        }
+
+        // not leased
+        if (store == null) {
+            return true;
+        }
+
+        // acquire
+        boolean acquired;
+        try {
+            acquired = store.tryAcquire(id, nodeId, coordination.getLeaseDuration());
+        } catch (Exception e) {
+            LOG.error("acquiring lease of smartcron " + id + " from " + store + " failed: " + e.getMessage(), e);
+            acquired = false;
+        }
+
+        // track held leases
+        if (acquired) {
+            if (held.add(id)) {
+                LOG.info("node " + nodeId + " acquired lease of smartcron " + id);
+            }
+        } else if (held.remove(id)) {
+            LOG.warn("node " + nodeId + " lost lease of smartcron " + id);
+        }
+        return acquired;
+    }
+
+    private void renew() {
+        held.forEach(this::acquire);
+    }
+
+    /**
+     * Releases the lease of given smartcron if held by this node.
+     *
+     * @param id
+     *            smartcron id
+     */
+    void release(String id) {
+        if (held.remove(id)) {
+            try {
+                store.release(id, nodeId);
+                LOG.info("node " + nodeId + " released lease of smartcron " + id);
+            } catch (Exception e) {
+                LOG.error("releasing lease of smartcron " + id + " from " + store + " failed: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    long getRetryDelay() {
+        return coordination.getRetryDelay();
+    }
+
+    String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Stops renewal, releases all held leases and leaves the membership, so other nodes can take over immediately.
+     */
+    void shutdown() {
+        stopped = true;
+        SmartcronTask current = task;
+        if (current != null) {
+            current.cancel();
+        }
+        lane.close();
+        held.forEach(this::release);
+        if (membership != null) {
+            try {
+                membership.leave(nodeId);
+            } catch (Exception e) {
+                LOG.error("leaving membership " + membership + " failed: " + e.getMessage(), e);
+            }
+        }
+    }
+}
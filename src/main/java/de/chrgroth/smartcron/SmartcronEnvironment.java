@@ -0,0 +1,124 @@
+package de.chrgroth.smartcron;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.chrgroth.smartcron.api.SmartcronGroup;
+import de.chrgroth.smartcron.coordination.SmartcronCoordination;
+import de.chrgroth.smartcron.scheduler.SmartcronExecutors;
+import de.chrgroth.smartcron.scheduler.SmartcronScheduler;
+
+/**
+ * Dependencies shared by all {@link SmartcronHandler}s of a {@link Smartcrons} instance.
+ *
+ * @author Christian Groth
+ */
+class SmartcronEnvironment {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SmartcronEnvironment.class);
+
+    private final SmartcronScheduler scheduler;
+    private final SmartcronVersions versions = new SmartcronVersions();
+    private final SmartcronEventBus events = new SmartcronEventBus();
+    private final ConcurrentMap<String, SmartcronGroupLimiter> groups = new ConcurrentHashMap<>();
+    private final SmartcronCoordinator coordinator;
+    private ScheduledExecutorService timeouts;
+
+    SmartcronEnvironment(SmartcronScheduler scheduler) {
+        this(scheduler, null);
+    }
+
+    SmartcronEnvironment(SmartcronScheduler scheduler, SmartcronCoordination coordination) {
+        this.scheduler = scheduler;
+        if (coordination == null) {
+            coordinator = null;
+        } else {
+            coordinator = new SmartcronCoordinator(coordination, scheduler.createLane("smartcron-coordination"));
+            coordinator.start();
+        }
+    }
+
+    SmartcronScheduler getScheduler() {
+        return scheduler;
+    }
+
+    SmartcronVersions getVersions() {
+        return versions;
+    }
+
+    SmartcronEventBus getEvents() {
+        return events;
+    }
+
+    /**
+     * Returns the coordinator acquiring leases before executions.
+     *
+     * @return coordinator, null if executions are not coordinated
+     */
+    SmartcronCoordinator getCoordinator() {
+        return coordinator;
+    }
+
+    /**
+     * Returns the limiter for given group, created on first access. The definition given first is used for all smartcrons of the group.
+     *
+     * @param group
+     *            group definition, may be null
+     * @return limiter, null if group was null
+     */
+    SmartcronGroupLimiter getGroupLimiter(SmartcronGroup group) {
+
+        // null guard
+        if (group == null) {
+            return null;
+        }
+
+        // lookup
+        SmartcronGroupLimiter limiter = groups.computeIfAbsent(group.getName(), name -> new SmartcronGroupLimiter(group));
+        if (!limiter.getGroup().equals(group)) {
+            LOG.warn("ignoring conflicting definition " + group + ", using " + limiter.getGroup());
+        }
+        return limiter;
+    }
+
+    /**
+     * Returns the executor for execution timeouts, created on first access.
+     *
+     * @return timeout executor
+     */
+    synchronized ScheduledExecutorService getTimeouts() {
+        if (timeouts == null) {
+            timeouts = SmartcronExecutors.newTimeoutExecutor();
+        }
+        return timeouts;
+    }
+
+    void shutdown() {
+        shutdown(true);
+    }
+
+    /**
+     * Stops all executors created by this environment.
+     *
+     * @param stopScheduler
+     *            true to stop the scheduler as well, false if the scheduler is still used by others
+     */
+    void shutdown(boolean stopScheduler) {
+        if (coordinator != null) {
+            coordinator.shutdown();
+        }
+        if (stopScheduler) {
+            scheduler.shutdown();
+        }
+        events.shutdown();
+        synchronized (this) {
+            if (timeouts != null) {
+                timeouts.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package de.chrgroth.smartcron;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+
+import de.chrgroth.smartcron.api.SmartcronListener;
+import de.chrgroth.smartcron.model.SmartcronEvent;
+import de.chrgroth.smartcron.model.SmartcronExecution;
+import de.chrgroth.smartcron.scheduler.SmartcronExecutors;
+
+/**
+ * Publishes {@link SmartcronEvent}s to all {@link SmartcronSubscription}s. Publishing only blocks on full lossless subscriptions and does not allocate
+ * anything as long as there are no subscriptions.
+ *
+ * @author Christian Groth
+ */
+class SmartcronEventBus {
+
+    private final List<SmartcronSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor = SmartcronExecutors.newDispatcherPool();
+
+    SmartcronSubscription subscribe(SmartcronListener listener, int capacity, int maxBatchSize, boolean lossless) {
+        SmartcronSubscription subscription = new SmartcronSubscription(this, listener, capacity, maxBatchSize, lossless);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    void remove(SmartcronSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    void publish(SmartcronEvent.Type type, String id, String name, SmartcronExecution execution) {
+
+        // fast path
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+
+        // publish
+        SmartcronEvent event = new SmartcronEvent(type, id, name, LocalDateTime.now(), execution);
+        for (SmartcronSubscription subscription : subscriptions) {
+            subscription.publish(event, executor);
+        }
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,90 @@
+package de.chrgroth.smartcron;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import de.chrgroth.smartcron.api.SmartcronGroup;
+
+/**
+ * Limits concurrent executions of all smartcrons in a {@link SmartcronGroup}. Acquiring a permit never blocks, timers not getting a permit are either
+ * queued and resumed once a permit is released or rejected, depending on the group policy. A released permit is handed over to the oldest queued timer
+ * directly.
+ *
+ * @author Christian Groth
+ */
+class SmartcronGroupLimiter {
+
+    private final SmartcronGroup group;
+    private final Deque<SmartcronTimer> waiting = new ArrayDeque<>();
+    private int running;
+
+    SmartcronGroupLimiter(SmartcronGroup group) {
+        this.group = group;
+    }
+
+    SmartcronGroup getGroup() {
+        return group;
+    }
+
+    /**
+     * Acquires a permit for given timer.
+     *
+     * @param timer
+     *            timer to be executed
+     * @return true if permit was acquired, false if timer was queued or must be skipped
+     */
+    synchronized boolean tryAcquire(SmartcronTimer timer) {
+        if (running < group.getMaxConcurrency()) {
+            running++;
+            return true;
+        }
+        if (group.getPolicy() == SmartcronGroup.Policy.DELAY) {
+            waiting.add(timer);
+        }
+        return false;
+    }
+
+    /**
+     * Releases a permit, handing it over to the oldest waiting timer if any.
+     */
+    void release() {
+
+        // hand over or release permit
+        SmartcronTimer next;
+        synchronized (this) {
+            next = waiting.poll();
+            if (next == null) {
+                running--;
+            }
+        }
+
+        // resume outside lock
+        if (next != null) {
+            next.resume();
+        }
+    }
+
+    /**
+     * Removes given timer from waiting queue.
+     *
+     * @param timer
+     *            timer to be removed
+     * @return true if timer was waiting, false otherwise
+     */
+    synchronized boolean remove(SmartcronTimer timer) {
+        return waiting.remove(timer);
+    }
+
+    synchronized int getRunning() {
+        return running;
+    }
+
+    synchronized int getWaiting() {
+        return waiting.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SmartcronGroupLimiter [group=" + group + ", running=" + running + ", waiting=" + waiting.size() + "]";
+    }
+}
@@ -1,22 +1,33 @@
 package de.chrgroth.smartcron;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.ArrayList;
-import java.util.Date;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.Timer;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.chrgroth.smartcron.api.Smartcron;
+import de.chrgroth.smartcron.api.SmartcronGroup;
+import de.chrgroth.smartcron.api.SmartcronMisfirePolicy;
 import de.chrgroth.smartcron.api.SmartcronExecutionContext;
+import de.chrgroth.smartcron.model.SmartcronEvent;
 import de.chrgroth.smartcron.model.SmartcronExecution;
 import de.chrgroth.smartcron.model.SmartcronMetadata;
 import de.chrgroth.smartcron.model.SmartcronStatistics;
+import de.chrgroth.smartcron.scheduler.SmartcronScheduler;
+import de.chrgroth.smartcron.scheduler.SmartcronSchedulerLane;
+import de.chrgroth.smartcron.scheduler.SmartcronTask;
 
 /**
  * Handler class responsible for controlling execution of a certain {@link Smartcron}.
@@ -27,148 +38,558 @@ public class SmartcronHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(SmartcronHandler.class);
 
-    private final Timer timer;
+    private final SmartcronSchedulerLane lane;
     private final Smartcron smartcron;
+    private final String id;
     private final String smartcronName;
-    private boolean active;
-    private LocalDateTime scheduled;
-    private SmartcronTimer task;
-    private SmartcronStatistics statistics = new SmartcronStatistics();
-    private final Map<String, SmartcronStatistics> statisticsPerMode = new HashMap<>();
-    private final List<SmartcronExecution> history = new ArrayList<>();
-
-    public SmartcronHandler(Smartcron smartcron) {
+    private final AtomicReference<Lifecycle> lifecycle = new AtomicReference<>(Lifecycle.IDLE);
+    private final Object metadataLock = new Object();
+    private final StatisticsRecorder statistics = new StatisticsRecorder();
+    private final Map<String, StatisticsRecorder> statisticsPerMode = new HashMap<>();
+    private final SmartcronHistory history;
+    private final SmartcronVersions versions;
+    private final SmartcronEventBus events;
+    private final SmartcronGroupLimiter group;
+    private final SmartcronCoordinator coordinator;
+    private final ScheduledExecutorService timeouts;
+    private final long smoothingOffset;
+    private final AtomicLong version = new AtomicLong();
+    private final SmartcronEnvironment ownedEnvironment;
+    private volatile SmartcronMetadata metadata;
+
+    /**
+     * Creates a standalone handler with its own event dispatcher and timeout executor, both are stopped on {@link #shutdown()}. The given scheduler is
+     * not stopped.
+     *
+     * @param smartcron
+     *            smartcron to be handled
+     * @param scheduler
+     *            scheduler to be used
+     */
+    public SmartcronHandler(Smartcron smartcron, SmartcronScheduler scheduler) {
+        this(smartcron, smartcron.getClass().getName(), new SmartcronEnvironment(scheduler), true);
+    }
+
+    SmartcronHandler(Smartcron smartcron, String id, SmartcronEnvironment environment) {
+        this(smartcron, id, environment, false);
+    }
+
+    private SmartcronHandler(Smartcron smartcron, String id, SmartcronEnvironment environment, boolean ownsEnvironment) {
         this.smartcron = smartcron;
+        ownedEnvironment = ownsEnvironment ? environment : null;
+        this.id = id;
+        versions = environment.getVersions();
+        events = environment.getEvents();
         smartcronName = smartcron.getClass().getName();
-        timer = new Timer(smartcronName, true);
-        active = false;
+        lane = environment.getScheduler().createLane(id);
+        group = environment.getGroupLimiter(smartcron.executionGroup());
+        coordinator = environment.getCoordinator();
+        timeouts = smartcron.executionTimeout() > 0L ? environment.getTimeouts() : null;
+        long smoothingWindow = smartcron.smoothingWindow();
+        smoothingOffset = smoothingWindow > 0L ? SmartcronHashing.offset(id, smoothingWindow) : 0L;
+        history = smartcron.compactExecutionHistory() ? new ColumnarHistory(smartcron.maxExecutionHistorySize())
+                : new RingBufferHistory(smartcron.maxExecutionHistorySize());
     }
 
     public boolean isOfType(Class<? extends Smartcron> type) {
         return smartcron.getClass().equals(type);
     }
 
+    public Class<? extends Smartcron> getType() {
+        return smartcron.getClass();
+    }
+
     public void activate() {
+        activate(null);
+    }
 
-        // state guard
-        if (active) {
+    /**
+     * Activates the smartcron if not active yet.
+     *
+     * @param firstExecution
+     *            first execution, null to execute after the initial delay
+     */
+    void activate(LocalDateTime firstExecution) {
+        if (firstExecution == null) {
+            activateAfter(Math.max(0L, smartcron.initialDelay()));
+        } else {
+            activate(firstExecution, Math.max(0L, toEpochMillis(firstExecution) - System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Activates the smartcron if not active yet, executing after given delay and the smoothing offset.
+     *
+     * @param delay
+     *            delay in milliseconds
+     */
+    void activateAfter(long delay) {
+        long smoothed = Math.max(0L, delay) + smoothingOffset;
+        activate(smoothed > 0L ? LocalDateTime.now().plus(smoothed, ChronoUnit.MILLIS) : null, smoothed);
+    }
+
+    /**
+     * Activates the smartcron at given next execution restored from the store. A restored next execution overdue by more than the misfire threshold,
+     * i.e. after a downtime, is a misfire. It is executed after given extra delay and the smoothing offset, with jitter using
+     * {@link SmartcronMisfirePolicy#JITTER}, so restarted smartcrons don't execute all at once. No interval is known for
+     * {@link SmartcronMisfirePolicy#SKIP}, so the smartcron is executed once to compute the next slot.
+     *
+     * @param restored
+     *            restored next execution
+     * @param extraDelay
+     *            additional delay of overdue executions in milliseconds, i.e. a stagger offset
+     */
+    void activateRestored(LocalDateTime restored, long extraDelay) {
+
+        // not overdue
+        long now = System.currentTimeMillis();
+        if (!restored.isBefore(fromEpochMillis(now - smartcron.misfireThreshold()))) {
+            activate(restored);
             return;
         }
 
+        // misfire
+        long jitter = smartcron.misfirePolicy() == SmartcronMisfirePolicy.JITTER
+                ? ThreadLocalRandom.current().nextLong(Math.max(1L, smartcron.misfireJitterWindow())) : 0L;
+        LOG.info("restored next execution " + restored + " of smartcron " + id + " misfired, executing after " + (extraDelay + jitter + smoothingOffset) + "ms");
+        activateAfter(extraDelay + jitter);
+    }
+
+    private void activate(LocalDateTime scheduled, long delay) {
+
+        // state guard
+        Lifecycle current;
+        Lifecycle next;
+        do {
+            current = lifecycle.get();
+            if (current.state.isActive()) {
+                return;
+            }
+            next = new Lifecycle(SmartcronState.SCHEDULED, new SmartcronTimer(this, scheduled, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay), smoothingOffset),
+                    scheduled);
+        } while (!lifecycle.compareAndSet(current, next));
+        touch();
+
         // activate
-        LOG.info("activating smartcron " + smartcronName);
-        active = true;
-        task = new SmartcronTimer(this, null);
+        LOG.info("activating smartcron " + id);
+        if (coordinator != null) {
+            coordinator.register(this);
+        }
+        events.publish(SmartcronEvent.Type.ACTIVATED, id, smartcronName, null);
         try {
-            timer.schedule(task, 0L);
+            lane.schedule(next.task, delay);
         } catch (Exception e) {
-            LOG.error("scheduling smartcron " + smartcronName + " failed: " + e.getMessage(), e);
-            active = false;
-            task = null;
+            LOG.error("scheduling smartcron " + id + " failed: " + e.getMessage(), e);
+            if (lifecycle.compareAndSet(next, Lifecycle.IDLE)) {
+                touch();
+            }
         }
     }
 
     public void deactivate() {
 
         // state guard
-        if (!active) {
-            return;
-        }
+        Lifecycle current;
+        do {
+            current = lifecycle.get();
+            if (!current.state.isActive()) {
+                return;
+            }
+        } while (!lifecycle.compareAndSet(current, Lifecycle.DEACTIVATED));
+        touch();
 
-        // deactivate
-        LOG.info("deactivating smartcron " + smartcronName);
+        // deactivate, a running execution will finish but not be rescheduled
+        LOG.info("deactivating smartcron " + id);
+        events.publish(SmartcronEvent.Type.DEACTIVATED, id, smartcronName, null);
         try {
-            task.cancel();
+            if (!current.task.cancel() && group != null) {
+                group.remove(current.task);
+            }
         } catch (Exception e) {
-            LOG.error("failed to cancel smartcron " + smartcronName + ": " + e.getMessage(), e);
-        } finally {
-            task = null;
-            scheduled = null;
-            active = false;
+            LOG.error("failed to cancel smartcron " + id + ": " + e.getMessage(), e);
+        }
+        if (coordinator != null) {
+            coordinator.release(id);
         }
 
         // add deactivated marker execution entry to history
         if (smartcron.executionHistory()) {
-            addToHistory(SmartcronExecution.createDeactivatedMarkerEntry());
+            synchronized (metadataLock) {
+                history.add(SmartcronExecution.createDeactivatedMarkerEntry(), touch());
+            }
         }
     }
 
-    public void smartcronExecutionCallback(SmartcronExecutionContext context, SmartcronExecution execution) {
+    /**
+     * Moves the pending execution to given time, activating the smartcron if inactive. Smoothing is not applied to the given time.
+     *
+     * @param nextExecution
+     *            next execution
+     * @return true if the next execution was moved or the smartcron was activated, false if an execution is in progress
+     */
+    boolean reschedule(LocalDateTime nextExecution) {
+
+        // activate inactive
+        Lifecycle current = lifecycle.get();
+        if (!current.state.isActive()) {
+            activate(nextExecution);
+            return true;
+        }
 
-        // reset next execution status
-        task = null;
-        scheduled = null;
+        // move parked execution, executed once owned
+        if (current.state == SmartcronState.PARKED) {
+            if (lifecycle.compareAndSet(current, new Lifecycle(SmartcronState.PARKED, current.task, nextExecution))) {
+                touch();
+                return true;
+            }
+            return false;
+        }
 
-        // update statistics
-        boolean isError = execution.getError() != null;
-        statistics = update(statistics, execution.getDuration(), isError);
-        String mode = context.getMode();
-        SmartcronStatistics modeStatistics = statisticsPerMode.get(mode);
-        if (modeStatistics == null) {
-            modeStatistics = new SmartcronStatistics();
-            statisticsPerMode.put(mode, modeStatistics);
+        // state guard, pending execution must not have been started
+        if (current.state != SmartcronState.SCHEDULED || !current.task.cancel()) {
+            return false;
         }
-        statisticsPerMode.put(mode, update(modeStatistics, execution.getDuration(), isError));
 
-        // update history
-        if (smartcron.executionHistory() && !context.isIgnoreInHistory()) {
-            addToHistory(execution);
+        // reschedule
+        LOG.info("rescheduling smartcron " + id + " to " + nextExecution);
+        reschedule(current, nextExecution);
+        return true;
+    }
+
+    /**
+     * Called by given timer when due, checking ownership and acquiring the cluster lease if executions are coordinated. Smartcrons owned by another
+     * node are parked until this node gains ownership, smartcrons leased by another node are retried later.
+     *
+     * @param timer
+     *            timer to be executed
+     * @return true if execution may continue, false if the smartcron is executed by another node and the execution was skipped
+     */
+    boolean smartcronExecutionLeased(SmartcronTimer timer) {
+
+        // not coordinated
+        if (coordinator == null) {
+            return true;
         }
 
-        // abort if no follow up is needed
+        // park if owned by another node
+        if (!coordinator.owns(id)) {
+            coordinator.release(id);
+            Lifecycle current = lifecycle.get();
+            if (current.state == SmartcronState.SCHEDULED && current.task == timer) {
+                park(current);
+            }
+            return false;
+        }
+
+        // acquire lease
+        if (coordinator.acquire(id)) {
+            return true;
+        }
+
+        // skip and retry later, the lease holder executes the smartcron meanwhile
+        Lifecycle current = lifecycle.get();
+        if (current.state == SmartcronState.SCHEDULED && current.task == timer) {
+            LOG.debug("smartcron " + id + " leased by another node, skipping");
+            reschedule(current, LocalDateTime.now().plus(coordinator.getRetryDelay(), ChronoUnit.MILLIS));
+        }
+        return false;
+    }
+
+    /**
+     * Called by the coordinator after the members changed. A planned execution is parked if this node lost ownership and resumed if it gained
+     * ownership, so smartcrons owned by other nodes are never polled.
+     */
+    void ownershipChanged() {
+        Lifecycle current = lifecycle.get();
+        if (coordinator.owns(id)) {
+            if (current.state == SmartcronState.PARKED) {
+                LOG.info("resuming smartcron " + id + " owned by node " + coordinator.getNodeId());
+                reschedule(current, current.scheduled == null ? LocalDateTime.now() : current.scheduled);
+            }
+        } else if (current.state == SmartcronState.SCHEDULED && current.task.cancel()) {
+            park(current);
+        }
+    }
+
+    private void park(Lifecycle current) {
+        if (lifecycle.compareAndSet(current, new Lifecycle(SmartcronState.PARKED, current.task, current.scheduled))) {
+            touch();
+            LOG.debug("smartcron " + id + " owned by another node, parking");
+
+            // members may have changed meanwhile
+            ownershipChanged();
+        }
+    }
+
+    /**
+     * Called by given timer when due, acquiring an execution group permit if needed.
+     *
+     * @param timer
+     *            timer to be executed
+     * @return true if execution may start, false if timer is waiting for a permit or was skipped
+     */
+    boolean smartcronExecutionPermitted(SmartcronTimer timer) {
+
+        // no group
+        if (group == null || group.tryAcquire(timer)) {
+            return true;
+        }
+
+        // skip and retry later, otherwise timer is resumed by group
+        if (group.getGroup().getPolicy() == SmartcronGroup.Policy.SKIP) {
+            Lifecycle current = lifecycle.get();
+            if (current.state == SmartcronState.SCHEDULED && current.task == timer) {
+                LOG.debug("no permit in group " + group.getGroup().getName() + ", skipping smartcron " + id);
+                reschedule(current, LocalDateTime.now().plus(group.getGroup().getRetryDelay(), ChronoUnit.MILLIS));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Called by group when a permit was handed over to given waiting timer.
+     *
+     * @param timer
+     *            resumed timer
+     */
+    void smartcronExecutionResumed(SmartcronTimer timer) {
+        try {
+            lane.schedule(new SmartcronTask() {
+
+                @Override
+                protected void execute() {
+                    timer.executePermitted();
+                }
+            }, 0L);
+        } catch (Exception e) {
+            LOG.error("resuming smartcron " + id + " failed: " + e.getMessage(), e);
+            smartcronExecutionFinished(timer);
+            Lifecycle current = lifecycle.get();
+            if (current.task == timer && lifecycle.compareAndSet(current, Lifecycle.IDLE)) {
+                touch();
+            }
+        }
+    }
+
+    /**
+     * Called by given timer after execution, releasing the execution group permit if needed.
+     *
+     * @param timer
+     *            executed timer
+     */
+    void smartcronExecutionFinished(SmartcronTimer timer) {
+        if (group != null) {
+            group.release();
+        }
+    }
+
+    /**
+     * Called by given timer to schedule the timeout of an execution. Timeouts are scheduled on a dedicated thread, as lane and workers may be blocked by
+     * the timed out execution.
+     *
+     * @param timeoutAction
+     *            action completing the execution on timeout
+     * @param timeout
+     *            timeout in milliseconds
+     * @return scheduled timeout, null if scheduling failed
+     */
+    Future<?> smartcronExecutionTimeout(Runnable timeoutAction, long timeout) {
+        try {
+            return timeouts.schedule(timeoutAction, timeout, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            LOG.error("scheduling timeout of smartcron " + id + " failed: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Called by given timer right before execution.
+     *
+     * @param timer
+     *            timer to be executed
+     * @return true if execution may start, false if timer is outdated due to deactivation
+     */
+    boolean smartcronExecutionStarting(SmartcronTimer timer) {
+        Lifecycle current = lifecycle.get();
+        if (current.state == SmartcronState.SCHEDULED && current.task == timer
+                && lifecycle.compareAndSet(current, new Lifecycle(SmartcronState.RUNNING, timer, current.scheduled))) {
+            touch();
+            return true;
+        }
+        return false;
+    }
+
+    public void smartcronExecutionCallback(SmartcronTimer timer, SmartcronExecutionContext context, SmartcronExecution execution) {
+
+        // detect misfire
         LocalDateTime nextExecution = execution.getNextExecution();
+        long now = System.currentTimeMillis();
+        boolean misfire = nextExecution != null && nextExecution.isBefore(fromEpochMillis(now - smartcron.misfireThreshold()));
+
+        // update statistics and history
+        synchronized (metadataLock) {
+            boolean isError = execution.getError() != null;
+            StatisticsRecorder modeStatistics = statisticsPerMode.computeIfAbsent(context.getMode(), mode -> new StatisticsRecorder());
+            statistics.record(execution.getDurationNanos(), execution.getStartLag(), isError, misfire);
+            modeStatistics.record(execution.getDurationNanos(), execution.getStartLag(), isError, misfire);
+            long changeVersion = touch();
+            if (smartcron.executionHistory() && !context.isIgnoreInHistory()) {
+                history.add(execution, changeVersion);
+            }
+        }
+        events.publish(SmartcronEvent.Type.EXECUTED, id, smartcronName, execution);
+
+        // deactivation handling
+        Lifecycle current = lifecycle.get();
+        if (current.state != SmartcronState.RUNNING || current.task != timer) {
+            return;
+        }
+
+        // abort if no follow up is needed
         if (nextExecution == null) {
-            LOG.info("smartcron " + smartcronName + " did not return next execution time, disabling.");
-            active = false;
+            if (lifecycle.compareAndSet(current, Lifecycle.IDLE)) {
+                touch();
+                LOG.info("smartcron " + id + " did not return next execution time, disabling.");
+            }
             return;
         }
 
-        // shutdown handling
-        if (active) {
+        // re-schedule next execution
+        if (misfire) {
+            nextExecution = misfired(execution, now);
+            LOG.info("smartcron " + id + " misfired, next execution " + execution.getNextExecution() + " moved to " + nextExecution);
+        }
+        reschedule(current, nextExecution);
+    }
+
+    private LocalDateTime misfired(SmartcronExecution execution, long now) {
+        LocalDateTime overdue = execution.getNextExecution();
+        SmartcronMisfirePolicy policy = smartcron.misfirePolicy();
+        if (policy == SmartcronMisfirePolicy.SKIP) {
 
-            // re-schedule next execution
-            scheduled = nextExecution;
-            task = new SmartcronTimer(this, scheduled);
-            try {
-                timer.schedule(task, Date.from(nextExecution.atZone(ZoneId.systemDefault()).toInstant()));
-            } catch (Exception e) {
-                LOG.error("rescheduling smartcron " + smartcronName + " failed: " + e.getMessage(), e);
-                active = false;
-                task = null;
+            // move to next slot using interval between current and overdue execution at full precision
+            Duration interval = execution.getScheduled() == null ? Duration.ZERO : Duration.between(execution.getScheduled(), overdue);
+            LocalDateTime current = LocalDateTime.now();
+            if (interval.isZero() || interval.isNegative()) {
+                return current;
             }
+            long slots = Duration.between(overdue, current).toNanos() / interval.toNanos() + 1;
+            return overdue.plus(interval.multipliedBy(slots));
+        } else if (policy == SmartcronMisfirePolicy.JITTER) {
+            return fromEpochMillis(now + ThreadLocalRandom.current().nextLong(Math.max(1L, smartcron.misfireJitterWindow())));
         }
+
+        // fire once
+        return execution.getNextExecution();
+    }
+
+    private static long toEpochMillis(LocalDateTime date) {
+        return date.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
 
-    private SmartcronStatistics update(SmartcronStatistics statistics, long duration, boolean isError) {
+    private static LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
 
-        // increment count and errors
-        long count = statistics.getCount() + 1;
-        long errors = statistics.getErrors();
-        if (isError) {
-            errors++;
+    private void reschedule(Lifecycle current, LocalDateTime scheduled) {
+        Lifecycle next = null;
+        try {
+            long delay = Math.max(0L, toEpochMillis(scheduled) - System.currentTimeMillis());
+            next = new Lifecycle(SmartcronState.SCHEDULED,
+                    new SmartcronTimer(this, scheduled, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay), smoothingOffset), scheduled);
+            if (lifecycle.compareAndSet(current, next)) {
+                touch();
+                lane.schedule(next.task, delay);
+            }
+        } catch (Exception e) {
+            LOG.error("rescheduling smartcron " + id + " failed: " + e.getMessage(), e);
+            if (lifecycle.compareAndSet(next, Lifecycle.IDLE) || lifecycle.compareAndSet(current, Lifecycle.IDLE)) {
+                touch();
+            }
         }
+    }
 
-        // compute new average duration
-        double avgDuration = (statistics.getAvgDuration() * (count - 1) + duration) / count;
+    /**
+     * Adds statistics of given previously stored state.
+     *
+     * @param stored
+     *            stored state
+     */
+    void restore(SmartcronMetadata stored) {
+        synchronized (metadataLock) {
+            statistics.restore(stored.getStatistics());
+            stored.getStatisticsPerMode().forEach((mode, modeStatistics) -> statisticsPerMode.computeIfAbsent(mode, m -> new StatisticsRecorder()).restore(modeStatistics));
+            touch();
+        }
+    }
 
-        // done
-        return new SmartcronStatistics(count, errors, avgDuration);
+    /**
+     * Marks the handler as changed, taking the next version from the counter shared by all handlers so metadata is only rebuilt after changes.
+     *
+     * @return new handler version
+     */
+    private long touch() {
+        return versions.next(version);
     }
 
-    private void addToHistory(SmartcronExecution execution) {
+    /**
+     * Returns the version of the latest change.
+     *
+     * @return version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Returns a metadata snapshot. The previous snapshot is returned as long as the handler did not change.
+     *
+     * @return metadata, never null
+     */
+    public SmartcronMetadata cretaeMetadata() {
 
-        // check max history size
-        int maxExecutionHistorySize = smartcron.maxExecutionHistorySize();
-        if (history.size() == maxExecutionHistorySize) {
-            history.remove(maxExecutionHistorySize - 1);
+        // reuse unchanged snapshot, version must be read before state to never cache a snapshot older than its version
+        long currentVersion = version.get();
+        SmartcronMetadata cached = metadata;
+        if (cached != null && cached.getVersion() == currentVersion) {
+            return cached;
         }
 
-        // add new entry
-        history.add(0, execution);
+        // create snapshot
+        SmartcronMetadata created = createMetadata(currentVersion, Long.MIN_VALUE, Long.MAX_VALUE);
+        metadata = created;
+        return created;
     }
 
-    public SmartcronMetadata cretaeMetadata() {
-        return new SmartcronMetadata(smartcronName, active, scheduled, statistics, statisticsPerMode, history);
+    /**
+     * Returns a metadata snapshot containing only history entries changed after given version up to the given upper bound.
+     *
+     * @param since
+     *            exclusive lower version bound
+     * @param until
+     *            inclusive upper version bound
+     * @return metadata, never null
+     */
+    public SmartcronMetadata createMetadataChanges(long since, long until) {
+        return createMetadata(version.get(), since, until);
+    }
+
+    private SmartcronMetadata createMetadata(long currentVersion, long since, long until) {
+        Lifecycle current = lifecycle.get();
+        synchronized (metadataLock) {
+            Map<String, SmartcronStatistics> modeStatistics = new HashMap<>();
+            statisticsPerMode.forEach((mode, recorder) -> modeStatistics.put(mode, recorder.snapshot()));
+            return new SmartcronMetadata(id, smartcronName, currentVersion, current.state.isActive(), current.scheduled, statistics.snapshot(),
+                    modeStatistics, history.toList(since, until));
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return smartcronName;
     }
 
     public Smartcron getSmartcron() {
@@ -176,16 +597,52 @@ public class SmartcronHandler {
     }
 
     public boolean isActive() {
-        return active;
+        return lifecycle.get().state.isActive();
+    }
+
+    /**
+     * Tells whether an execution is in progress, the next execution is not known until it finished.
+     *
+     * @return true if running, false otherwise
+     */
+    public boolean isRunning() {
+        return lifecycle.get().state == SmartcronState.RUNNING;
     }
 
     public void shutdown() {
         deactivate();
-        timer.cancel();
+        if (coordinator != null) {
+            coordinator.unregister(this);
+        }
+        lane.close();
+        if (ownedEnvironment != null) {
+            ownedEnvironment.shutdown(false);
+        }
     }
 
     @Override
     public String toString() {
-        return "SmartcronHandler [smartcron=" + smartcron + ", smartcronName=" + smartcronName + ", active=" + active + ", scheduled=" + scheduled + "]";
+        Lifecycle current = lifecycle.get();
+        return "SmartcronHandler [smartcron=" + smartcron + ", id=" + id + ", state=" + current.state + ", scheduled=" + current.scheduled + "]";
+    }
+
+    /**
+     * Immutable lifecycle value, replaced atomically on each transition using compare and set, so activation and deactivation never block executions
+     * and a deactivation can't be lost due to a concurrent reschedule.
+     */
+    private static final class Lifecycle {
+
+        private static final Lifecycle IDLE = new Lifecycle(SmartcronState.IDLE, null, null);
+        private static final Lifecycle DEACTIVATED = new Lifecycle(SmartcronState.DEACTIVATED, null, null);
+
+        private final SmartcronState state;
+        private final SmartcronTimer task;
+        private final LocalDateTime scheduled;
+
+        private Lifecycle(SmartcronState state, SmartcronTimer task, LocalDateTime scheduled) {
+            this.state = state;
+            this.task = task;
+            this.scheduled = scheduled;
+        }
     }
 }
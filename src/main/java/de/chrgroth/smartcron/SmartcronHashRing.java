@@ -0,0 +1,93 @@
+package de.chrgroth.smartcron;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable consistent hash ring assigning smartcrons to nodes. Each node is placed on the ring multiple times using virtual nodes, so smartcrons are
+ * spread evenly and only the share of a joining or leaving node is moved. Lookups use binary search on sorted primitive arrays and don't allocate.
+ *
+ * @author Christian Groth
+ */
+final class SmartcronHashRing {
+
+    /**
+     * Number of virtual nodes per node.
+     */
+    static final int VIRTUAL_NODES = 128;
+
+    private final Set<String> nodes;
+    private final long[] positions;
+    private final String[] owners;
+
+    SmartcronHashRing(Collection<String> nodes) {
+        this.nodes = Collections.unmodifiableSet(new HashSet<>(nodes));
+
+        // place virtual nodes
+        int size = this.nodes.size() * VIRTUAL_NODES;
+        long[] unsortedPositions = new long[size];
+        String[] unsortedOwners = new String[size];
+        int index = 0;
+        for (String node : this.nodes) {
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                unsortedPositions[index] = SmartcronHashing.hash(node + "#" + i);
+                unsortedOwners[index] = node;
+                index++;
+            }
+        }
+
+        // sort by position, ties are resolved by node id to be independent of iteration order
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int result = Long.compare(unsortedPositions[a], unsortedPositions[b]);
+            return result != 0 ? result : unsortedOwners[a].compareTo(unsortedOwners[b]);
+        });
+        positions = new long[size];
+        owners = new String[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = unsortedPositions[order[i]];
+            owners[i] = unsortedOwners[order[i]];
+        }
+    }
+
+    /**
+     * Returns the node owning given key, which is the first virtual node at or after the keys position on the ring.
+     *
+     * @param key
+     *            key, i.e. smartcron id
+     * @return owning node, null if ring is empty
+     */
+    String owner(String key) {
+
+        // empty guard
+        if (positions.length == 0) {
+            return null;
+        }
+
+        // lookup, wrapping around
+        int index = Arrays.binarySearch(positions, SmartcronHashing.hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            while (index > 0 && positions[index - 1] == positions[index]) {
+                index--;
+            }
+        }
+        return owners[index == positions.length ? 0 : index];
+    }
+
+    Set<String> getNodes() {
+        return nodes;
+    }
+
+    @Override
+    public String toString() {
+        return "SmartcronHashRing [nodes=" + nodes + "]";
+    }
+}
@@ -0,0 +1,57 @@
+package de.chrgroth.smartcron;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Stable 64 bit hashing of smartcron ids and names. Unlike {@link String#hashCode()} the hash bits are evenly distributed, so hashes may be used to spread
+ * smartcrons over time windows or nodes.
+ *
+ * @author Christian Groth
+ */
+final class SmartcronHashing {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long MIX_1 = 0xff51afd7ed558ccdL;
+    private static final long MIX_2 = 0xc4ceb9fe1a85ec53L;
+    private static final int SHIFT = 33;
+    private static final int BYTE_MASK = 0xff;
+
+    private SmartcronHashing() {
+
+    }
+
+    /**
+     * Computes FNV-1a over the UTF-8 bytes of given value, finalized with the murmur3 mix to spread similar values.
+     *
+     * @param value
+     *            value to be hashed
+     * @return hash
+     */
+    static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & BYTE_MASK;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> SHIFT;
+        hash *= MIX_1;
+        hash ^= hash >>> SHIFT;
+        hash *= MIX_2;
+        hash ^= hash >>> SHIFT;
+        return hash;
+    }
+
+    /**
+     * Computes a stable offset within given window.
+     *
+     * @param value
+     *            value to be hashed
+     * @param window
+     *            window size, must be positive
+     * @return offset in range [0, window)
+     */
+    static long offset(String value, long window) {
+        return Math.floorMod(hash(value), window);
+    }
+}
@@ -0,0 +1,49 @@
+package de.chrgroth.smartcron;
+
+import java.util.List;
+
+import de.chrgroth.smartcron.model.SmartcronExecution;
+
+/**
+ * Fixed capacity execution history of a single smartcron. Each entry is tagged with the metadata version it was added in, allowing to query only
+ * entries added after a known version. Implementations are not thread safe.
+ *
+ * @author Christian Groth
+ */
+interface SmartcronHistory {
+
+    /**
+     * Adds given execution as newest entry, dropping the oldest entry if capacity is reached.
+     *
+     * @param execution
+     *            execution to be added
+     * @param version
+     *            metadata version, must be greater than the version of all previously added entries
+     */
+    void add(SmartcronExecution execution, long version);
+
+    /**
+     * Returns the current number of entries.
+     *
+     * @return number of entries
+     */
+    int size();
+
+    /**
+     * Returns all executions, newest first.
+     *
+     * @return executions, never null
+     */
+    List<SmartcronExecution> toList();
+
+    /**
+     * Returns all executions added after version <code>since</code> up to and including version <code>until</code>, newest first.
+     *
+     * @param since
+     *            exclusive lower version bound
+     * @param until
+     *            inclusive upper version bound
+     * @return executions, never null
+     */
+    List<SmartcronExecution> toList(long since, long until);
+}
@@ -0,0 +1,131 @@
+package de.chrgroth.smartcron;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.chrgroth.smartcron.model.SmartcronMetadata;
+import de.chrgroth.smartcron.model.SmartcronMetadataChanges;
+import de.chrgroth.smartcron.persistence.SmartcronStore;
+import de.chrgroth.smartcron.scheduler.SmartcronSchedulerLane;
+import de.chrgroth.smartcron.scheduler.SmartcronTask;
+
+/**
+ * Periodically saves state of all changed smartcrons to a {@link SmartcronStore}, off the execution path. Changes are detected using
+ * {@link Smartcrons#getMetadataChanges(long)}, so unchanged smartcrons are never written. State loaded on startup is handed out once per smartcron to be
+ * restored.
+ *
+ * @author Christian Groth
+ */
+class SmartcronPersister {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SmartcronPersister.class);
+
+    private final Smartcrons smartcrons;
+    private final SmartcronStore store;
+    private final SmartcronSchedulerLane lane;
+    private final long interval;
+    private final Map<String, SmartcronMetadata> stored;
+    private long version;
+    private volatile SmartcronTask task;
+    private volatile boolean stopped;
+
+    SmartcronPersister(Smartcrons smartcrons, SmartcronStore store, SmartcronSchedulerLane lane, long interval) {
+        this.smartcrons = smartcrons;
+        this.store = store;
+        this.lane = lane;
+        this.interval = interval;
+        stored = new ConcurrentHashMap<>(store.load());
+        LOG.info("loaded state of " + stored.size() + " smartcrons from " + store);
+    }
+
+    void start() {
+        schedule();
+    }
+
+    private void schedule() {
+
+        // stopped guard
+        if (stopped) {
+            return;
+        }
+
+        // schedule next flush
+        SmartcronTask next = new SmartcronTask() {
+
+            @Override
+            protected void execute() {
+                if (!stopped) {
+                    flush();
+                    schedule();
+                }
+            }
+        };
+        task = next;
+        try {
+            lane.schedule(next, interval);
+        } catch (Exception e) {
+            LOG.error("scheduling smartcron state flush failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Restores stored state for given handler, if any.
+     *
+     * @param handler
+     *            handler to be restored
+     * @return next execution to be used on activation, null if unknown
+     */
+    LocalDateTime restore(SmartcronHandler handler) {
+
+        // lookup
+        SmartcronMetadata state = stored.remove(handler.getId());
+        if (state == null) {
+            return null;
+        }
+
+        // restore statistics and next execution
+        LOG.info("restoring state of smartcron " + handler.getId());
+        handler.restore(state);
+        return state.isActive() ? state.getScheduled() : null;
+    }
+
+    /**
+     * Saves state of all smartcrons changed since the last flush. Running smartcrons are saved once rescheduled, otherwise the date of the execution in
+     * progress would be restored and executed again.
+     */
+    synchronized void flush() {
+        try {
+            SmartcronMetadataChanges changes = smartcrons.getMetadataChanges(version, true);
+            store.save(changes.getMetadata());
+            version = changes.getVersion();
+        } catch (Exception e) {
+            LOG.error("saving smartcron state to " + store + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    void remove(String id) {
+        try {
+            store.remove(id);
+        } catch (Exception e) {
+            LOG.error("removing smartcron state of " + id + " from " + store + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stops periodic saving, saves all pending changes and closes the store.
+     */
+    void shutdown() {
+        stopped = true;
+        SmartcronTask current = task;
+        if (current != null) {
+            current.cancel();
+        }
+        lane.close();
+        flush();
+        store.close();
+    }
+}
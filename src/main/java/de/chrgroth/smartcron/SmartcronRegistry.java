@@ -0,0 +1,113 @@
+package de.chrgroth.smartcron;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import de.chrgroth.smartcron.api.Smartcron;
+
+/**
+ * Lock free registry of all {@link SmartcronHandler} instances, indexed by id and smartcron type. All returned collections are weakly consistent live views,
+ * safe to be iterated while handlers are added or removed concurrently.
+ *
+ * @author Christian Groth
+ */
+class SmartcronRegistry {
+
+    private final ConcurrentMap<String, SmartcronHandler> handlers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<? extends Smartcron>, Set<SmartcronHandler>> handlersByType = new ConcurrentHashMap<>();
+
+    /**
+     * Adds given handler unless its id is already registered.
+     *
+     * @param handler
+     *            handler to be added
+     * @return true if handler was added, false if id is already in use
+     */
+    boolean add(SmartcronHandler handler) {
+        if (handlers.putIfAbsent(handler.getId(), handler) != null) {
+            return false;
+        }
+        handlersByType.compute(handler.getType(), (type, typeHandlers) -> {
+            Set<SmartcronHandler> result = typeHandlers == null ? ConcurrentHashMap.newKeySet() : typeHandlers;
+            result.add(handler);
+            return result;
+        });
+        return true;
+    }
+
+    /**
+     * Adds all given handlers, updating the type index once per type.
+     *
+     * @param added
+     *            handlers to be added
+     * @return handlers not added as their id is already in use, never null
+     */
+    List<SmartcronHandler> addAll(Collection<SmartcronHandler> added) {
+
+        // add by id
+        List<SmartcronHandler> rejected = new ArrayList<>();
+        Map<Class<? extends Smartcron>, List<SmartcronHandler>> addedByType = new HashMap<>();
+        for (SmartcronHandler handler : added) {
+            if (handlers.putIfAbsent(handler.getId(), handler) == null) {
+                addedByType.computeIfAbsent(handler.getType(), type -> new ArrayList<>()).add(handler);
+            } else {
+                rejected.add(handler);
+            }
+        }
+
+        // index by type
+        addedByType.forEach((type, typeAdded) -> handlersByType.compute(type, (t, typeHandlers) -> {
+            Set<SmartcronHandler> result = typeHandlers == null ? ConcurrentHashMap.newKeySet() : typeHandlers;
+            result.addAll(typeAdded);
+            return result;
+        }));
+        return rejected;
+    }
+
+    /**
+     * Removes given handler.
+     *
+     * @param handler
+     *            handler to be removed
+     * @return true if handler was removed, false if it was not registered
+     */
+    boolean remove(SmartcronHandler handler) {
+        if (!handlers.remove(handler.getId(), handler)) {
+            return false;
+        }
+        handlersByType.computeIfPresent(handler.getType(), (type, typeHandlers) -> {
+            typeHandlers.remove(handler);
+            return typeHandlers.isEmpty() ? null : typeHandlers;
+        });
+        return true;
+    }
+
+    Collection<SmartcronHandler> all() {
+        return Collections.unmodifiableCollection(handlers.values());
+    }
+
+    SmartcronHandler byId(String id) {
+        return id == null ? null : handlers.get(id);
+    }
+
+    boolean contains(String id) {
+        return handlers.containsKey(id);
+    }
+
+    Collection<SmartcronHandler> ofType(Class<? extends Smartcron> type) {
+        Set<SmartcronHandler> typeHandlers = type == null ? null : handlersByType.get(type);
+        return typeHandlers == null ? Collections.emptySet() : Collections.unmodifiableSet(typeHandlers);
+    }
+
+    void clear() {
+        handlers.clear();
+        handlersByType.clear();
+    }
+}
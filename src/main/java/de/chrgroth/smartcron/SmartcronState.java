@@ -0,0 +1,44 @@
+package de.chrgroth.smartcron;
+
+/**
+ * Lifecycle states of a {@link SmartcronHandler}.
+ *
+ * @author Christian Groth
+ */
+enum SmartcronState {
+
+    /**
+     * Never activated or no further execution was planned.
+     */
+    IDLE(false),
+
+    /**
+     * Next execution is planned.
+     */
+    SCHEDULED(true),
+
+    /**
+     * Currently executing.
+     */
+    RUNNING(true),
+
+    /**
+     * Next execution is planned but owned by another node, resumed once this node gains ownership.
+     */
+    PARKED(true),
+
+    /**
+     * Explicitly deactivated.
+     */
+    DEACTIVATED(false);
+
+    private final boolean active;
+
+    SmartcronState(boolean active) {
+        this.active = active;
+    }
+
+    boolean isActive() {
+        return active;
+    }
+}
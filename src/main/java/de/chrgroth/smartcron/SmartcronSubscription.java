@@ -0,0 +1,216 @@
+package de.chrgroth.smartcron;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.chrgroth.smartcron.api.SmartcronListener;
+import de.chrgroth.smartcron.model.SmartcronEvent;
+
+/**
+ * Subscription of a {@link SmartcronListener}. Published events are buffered in a bounded queue and delivered in batches by a single dispatcher task
+ * at a time. If the listener can't keep up and the queue is full, new events are dropped and counted instead of blocking the publisher, the listener
+ * is notified about dropped events on the dispatcher thread. Lossless subscriptions block the publisher until the queue has space instead. Use
+ * {@link #close()} to deliver all buffered events before unsubscribing.
+ *
+ * @author Christian Groth
+ */
+public class SmartcronSubscription {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SmartcronSubscription.class);
+
+    private final SmartcronEventBus bus;
+    private final SmartcronListener listener;
+    private final BlockingQueue<SmartcronEvent> queue;
+    private final int maxBatchSize;
+    private final boolean lossless;
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong unreportedDrops = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final Object deliveryLock = new Object();
+    private volatile boolean cancelled;
+
+    SmartcronSubscription(SmartcronEventBus bus, SmartcronListener listener, int capacity, int maxBatchSize, boolean lossless) {
+        this.bus = bus;
+        this.listener = listener;
+        queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.lossless = lossless;
+    }
+
+    void publish(SmartcronEvent event, Executor executor) {
+
+        // buffer, waiting for space if lossless, or drop
+        if (lossless) {
+            if (!put(event, executor)) {
+                drop(1L);
+                return;
+            }
+        } else if (!queue.offer(event)) {
+            drop(1L);
+            return;
+        }
+
+        // trigger dispatcher
+        dispatch(executor);
+    }
+
+    private void dispatch(Executor executor) {
+        if (!cancelled && dispatching.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> deliver(executor));
+            } catch (RejectedExecutionException e) {
+                LOG.warn("event dispatcher not available, discarding " + queue.size() + " events");
+                drop(queue.size());
+                queue.clear();
+                dispatching.set(false);
+            }
+        }
+    }
+
+    private boolean put(SmartcronEvent event, Executor executor) {
+        try {
+            while (!queue.offer(event, 1L, TimeUnit.SECONDS)) {
+
+                // queue may only be full without pending dispatch if dispatcher was not available
+                if (cancelled) {
+                    return false;
+                }
+                dispatch(executor);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.error("interrupted while waiting for smartcron listener " + listener + ", event lost");
+            return false;
+        }
+    }
+
+    private void drop(long count) {
+        dropped.addAndGet(count);
+        unreportedDrops.addAndGet(count);
+    }
+
+    private void deliver(Executor executor) {
+        try {
+            drain();
+        } finally {
+
+            // events published after the last drain must not be left behind
+            dispatching.set(false);
+            if (!queue.isEmpty()) {
+                dispatch(executor);
+            }
+        }
+    }
+
+    private void drain() {
+        synchronized (deliveryLock) {
+
+            // deliver batches, failed batches are counted but not retried
+            List<SmartcronEvent> batch = new ArrayList<>(Math.min(maxBatchSize, queue.size()));
+            while (!cancelled && queue.drainTo(batch, maxBatchSize) > 0) {
+                reportDrops();
+                try {
+                    listener.onEvents(Collections.unmodifiableList(batch));
+                    delivered.addAndGet(batch.size());
+                } catch (Exception e) {
+                    LOG.error("smartcron listener " + listener + " failed, " + batch.size() + " events not delivered: " + e.getMessage(), e);
+                    failed.addAndGet(batch.size());
+                }
+                batch = new ArrayList<>(Math.min(maxBatchSize, queue.size()));
+            }
+
+            // drops while delivering the last batch
+            reportDrops();
+        }
+    }
+
+    private void reportDrops() {
+        long drops = unreportedDrops.getAndSet(0L);
+        if (drops > 0L && !cancelled) {
+            LOG.warn("smartcron listener " + listener + " could not keep up, dropped " + drops + " events");
+            try {
+                listener.onDropped(drops);
+            } catch (Exception e) {
+                LOG.error("smartcron listener " + listener + " failed: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Cancels the subscription, buffered events are discarded.
+     */
+    public void cancel() {
+        cancelled = true;
+        bus.remove(this);
+        queue.clear();
+    }
+
+    /**
+     * Closes the subscription, all buffered events are delivered on the calling thread before returning. Waits for a batch currently delivered by the
+     * dispatcher.
+     */
+    public void close() {
+        bus.remove(this);
+        drain();
+        cancelled = true;
+
+        // events published concurrently to unsubscribing
+        drop(queue.size());
+        queue.clear();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Returns the number of events delivered to the listener.
+     *
+     * @return delivered events
+     */
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    public boolean isLossless() {
+        return lossless;
+    }
+
+    /**
+     * Returns the number of events dropped because the listener could not keep up.
+     *
+     * @return dropped events
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of events not delivered because the listener failed processing them.
+     *
+     * @return failed events
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public String toString() {
+        return "SmartcronSubscription [listener=" + listener + ", cancelled=" + cancelled + ", buffered=" + queue.size() + ", delivered=" + delivered
+                + ", dropped=" + dropped + ", failed=" + failed + "]";
+    }
+}
@@ -1,73 +1,302 @@
 package de.chrgroth.smartcron;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.TimerTask;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.chrgroth.smartcron.api.AsyncSmartcron;
 import de.chrgroth.smartcron.api.Smartcron;
 import de.chrgroth.smartcron.api.SmartcronExecutionContext;
 import de.chrgroth.smartcron.model.SmartcronExecution;
+import de.chrgroth.smartcron.scheduler.SmartcronTask;
 
 /**
- * Timer task implementation for {@link Smartcron} instances.
+ * Scheduler task implementation for {@link Smartcron} instances.
  *
  * @author Christian Groth
  */
-public class SmartcronTimer extends TimerTask {
+public class SmartcronTimer extends SmartcronTask {
     private static final Logger LOG = LoggerFactory.getLogger(SmartcronTimer.class);
 
     private final SmartcronHandler handler;
     private final LocalDateTime scheduled;
+    private final long scheduledNanos;
+    private final long smoothingOffset;
+    private volatile long queuedNanos;
 
-    SmartcronTimer(SmartcronHandler handler, LocalDateTime scheduled) {
+    SmartcronTimer(SmartcronHandler handler, LocalDateTime scheduled, long scheduledNanos, long smoothingOffset) {
         this.handler = handler;
         this.scheduled = scheduled;
+        this.scheduledNanos = scheduledNanos;
+        this.smoothingOffset = smoothingOffset;
     }
 
     @Override
-    public void run() {
+    protected void execute() {
+
+        // acquire cluster lease and group permit
+        queuedNanos = System.nanoTime();
+        if (!handler.smartcronExecutionLeased(this) || !handler.smartcronExecutionPermitted(this)) {
+            return;
+        }
+
+        // execute
+        executePermitted();
+    }
+
+    /**
+     * Resumes execution after a group permit was handed over to this timer.
+     */
+    void resume() {
+        handler.smartcronExecutionResumed(this);
+    }
+
+    /**
+     * Executes the smartcron holding a group permit, if any. The permit is released once the execution completed, for asynchronous smartcrons this may
+     * happen on another thread.
+     */
+    void executePermitted() {
+        boolean completed = true;
+        try {
+            completed = executeSmartcron();
+        } finally {
+            if (completed) {
+                handler.smartcronExecutionFinished(this);
+            }
+        }
+    }
+
+    /**
+     * Executes the smartcron.
+     *
+     * @return true if execution completed, false if an asynchronous execution is pending or timed out
+     */
+    private boolean executeSmartcron() {
+
+        // state guard
+        if (!handler.smartcronExecutionStarting(this)) {
+            return true;
+        }
 
         // prepare
         Smartcron smartcron = handler.getSmartcron();
-        String smartcronName = smartcron.getClass().getName();
-        LocalDateTime started = null;
-        long duration = 0;
-        String error = null;
-        LocalDateTime nextSchedule = null;
+        SmartcronExecutionContext context = new SmartcronExecutionContext(scheduled, smoothingOffset);
+        long startedNanos = System.nanoTime();
+        Execution execution = new Execution(context, startedNanos, startedNanos - queuedNanos, LocalDateTime.now());
 
-        // prepare
-        SmartcronExecutionContext context = new SmartcronExecutionContext();
-        started = LocalDateTime.now();
+        // execute asynchronously
+        if (smartcron instanceof AsyncSmartcron) {
+            return executeAsync((AsyncSmartcron) smartcron, execution);
+        }
+
+        // execute, interrupted on timeout but completed not before returned
+        execution.watch(smartcron.executionTimeout(), Thread.currentThread(), null);
+        LocalDateTime result = null;
+        Throwable error = null;
         try {
+            result = smartcron.run(context);
+        } catch (Exception e) {
+            error = e;
+        }
+        Throwable timeout = execution.unwatch();
+        return timeout == null ? execution.complete(result, error) : execution.complete(null, timeout);
+    }
 
-            // execute
-            nextSchedule = smartcron.run(context);
-            duration = ChronoUnit.MILLIS.between(started, LocalDateTime.now());
+    private boolean executeAsync(AsyncSmartcron smartcron, Execution execution) {
 
-            // check for soft error
-            String softError = context.getError();
-            if (softError != null && !softError.trim().isEmpty()) {
-                LOG.warn("smartcron " + smartcronName + " finished with error: " + softError);
-                error = softError;
+        // start
+        CompletionStage<LocalDateTime> stage;
+        try {
+            stage = smartcron.runAsync(execution.context);
+            if (stage == null) {
+                throw new IllegalStateException("smartcron returned no completion stage");
             }
         } catch (Exception e) {
+            execution.complete(null, e);
+            return true;
+        }
+
+        // complete with stage or on timeout
+        execution.watch(smartcron.executionTimeout(), null, stage);
+        stage.whenComplete((nextSchedule, error) -> {
+            if (execution.complete(nextSchedule, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error)) {
+                handler.smartcronExecutionFinished(this);
+            }
+        });
+        return false;
+    }
+
+    private static void cancelStage(CompletionStage<LocalDateTime> stage) {
+        try {
+            stage.toCompletableFuture().cancel(true);
+        } catch (UnsupportedOperationException e) {
+            LOG.debug("unable to cancel stage " + stage + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * State of a single execution, completed exactly once.
+     */
+    private final class Execution {
 
-            // finished with hard error
-            duration = ChronoUnit.MILLIS.between(started, LocalDateTime.now());
-            error = e.getMessage();
-            LOG.warn("smartcron " + smartcronName + " crashed: " + error, e);
-            if (smartcron.abortOnException()) {
-                LOG.error("no further executions will be planned for " + smartcronName + ".", e);
+        private final SmartcronExecutionContext context;
+        private final long startedNanos;
+        private final long queueWait;
+        private final LocalDateTime started;
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile Future<?> timeoutFuture;
+        private Thread runner;
+        private Throwable timedOut;
+
+        private Execution(SmartcronExecutionContext context, long startedNanos, long queueWait, LocalDateTime started) {
+            this.context = context;
+            this.startedNanos = startedNanos;
+            this.queueWait = queueWait;
+            this.started = started;
+        }
+
+        /**
+         * Starts watching the execution for given timeout.
+         *
+         * @param timeout
+         *            timeout in milliseconds, no timeout if not positive
+         * @param executingThread
+         *            thread to be interrupted on timeout, null if executed asynchronously
+         * @param stage
+         *            stage to be cancelled on timeout, null if executed synchronously
+         */
+        private void watch(long timeout, Thread executingThread, CompletionStage<LocalDateTime> stage) {
+
+            // no timeout
+            if (timeout <= 0L) {
+                return;
+            }
+
+            // watch
+            synchronized (this) {
+                runner = executingThread;
+            }
+            timeoutFuture = handler.smartcronExecutionTimeout(() -> timeout(timeout, stage), timeout);
+        }
+
+        /**
+         * Cancels the execution on timeout. Asynchronous executions are completed with a timeout error right away, synchronous executions by their
+         * interrupted thread once returned, so the next execution never overlaps.
+         *
+         * @param timeout
+         *            timeout in milliseconds
+         * @param stage
+         *            stage to be cancelled, null if executed synchronously
+         */
+        private void timeout(long timeout, CompletionStage<LocalDateTime> stage) {
+
+            // synchronous execution is completed by its thread once returned, so the next execution never overlaps
+            if (stage == null) {
+                synchronized (this) {
+                    if (runner != null) {
+                        LOG.warn("smartcron " + handler.getId() + " timed out after " + timeout + " ms, interrupting");
+                        timedOut = new TimeoutException("execution timed out after " + timeout + " ms");
+                        context.cancel();
+                        runner.interrupt();
+                    }
+                }
+                return;
+            }
+
+            // completion guard
+            if (!complete(null, new TimeoutException("execution timed out after " + timeout + " ms"))) {
+                return;
+            }
+
+            // cancel execution
+            context.cancel();
+            cancelStage(stage);
+            handler.smartcronExecutionFinished(SmartcronTimer.this);
+        }
+
+        /**
+         * Stops watching a synchronous execution, clearing the interrupt caused by a timeout so the thread may be reused.
+         *
+         * @return timeout error, null if not timed out
+         */
+        private Throwable unwatch() {
+            Throwable timeout;
+            synchronized (this) {
+                runner = null;
+                timeout = timedOut;
+            }
+            if (timeout != null && Thread.interrupted()) {
+                LOG.debug("cleared timeout interrupt of smartcron " + handler.getId());
+            }
+            return timeout;
+        }
+
+        /**
+         * Completes the execution with given result unless already completed.
+         *
+         * @param result
+         *            returned next execution
+         * @param throwable
+         *            uncaught error, null if execution succeeded
+         * @return true if completed, false if already completed before
+         */
+        private boolean complete(LocalDateTime result, Throwable throwable) {
+
+            // completion guard
+            if (!completed.compareAndSet(false, true)) {
+                return false;
+            }
+            Future<?> currentTimeout = timeoutFuture;
+            if (currentTimeout != null) {
+                currentTimeout.cancel(false);
+            }
+
+            // prepare
+            long duration = System.nanoTime() - startedNanos;
+            Smartcron smartcron = handler.getSmartcron();
+            String smartcronName = handler.getId();
+            String error = null;
+            LocalDateTime nextSchedule = result;
+            if (throwable == null) {
+
+                // check for soft error
+                String softError = context.getError();
+                if (softError != null && !softError.trim().isEmpty()) {
+                    LOG.warn("smartcron " + smartcronName + " finished with error: " + softError);
+                    error = softError;
+                }
             } else {
-                LOG.info("recovering " + smartcronName, e);
-                nextSchedule = smartcron.recover();
+
+                // finished with hard error
+                error = throwable.getMessage();
+                LOG.warn("smartcron " + smartcronName + " crashed: " + error, throwable);
+                if (smartcron.abortOnException()) {
+                    LOG.error("no further executions will be planned for " + smartcronName + ".", throwable);
+                } else {
+                    LOG.info("recovering " + smartcronName, throwable);
+                    nextSchedule = recover(smartcron);
+                }
             }
+
+            // invoke callback
+            handler.smartcronExecutionCallback(SmartcronTimer.this, context,
+                    new SmartcronExecution(scheduled, started, startedNanos - scheduledNanos, queueWait, smoothingOffset, context.getMode(), duration, error, nextSchedule));
+            return true;
         }
 
-        // invoke callback
-        handler.smartcronExecutionCallback(context, new SmartcronExecution(scheduled, started, context.getMode(), duration, error, nextSchedule));
+        private LocalDateTime recover(Smartcron smartcron) {
+            try {
+                return smartcron.recover();
+            } catch (Exception e) {
+                LOG.error("recovering " + handler.getId() + " failed, no further executions will be planned: " + e.getMessage(), e);
+                return null;
+            }
+        }
     }
 }
@@ -0,0 +1,48 @@
+package de.chrgroth.smartcron;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Version counter shared by all {@link SmartcronHandler}s of a {@link Smartcrons} instance. Taking a version from the counter and publishing it as
+ * handler version is done under a shared lock, reading the latest published version requires the exclusive lock. So no handler version up to the
+ * returned version can become visible later and changes are never missed by callers polling for changes since a previously returned version.
+ *
+ * @author Christian Groth
+ */
+class SmartcronVersions {
+
+    private final AtomicLong counter = new AtomicLong();
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * Takes the next version and publishes it as given handler version.
+     *
+     * @param version
+     *            handler version to be updated
+     * @return new handler version
+     */
+    long next(AtomicLong version) {
+        long stamp = lock.readLock();
+        try {
+            long next = counter.incrementAndGet();
+            return version.accumulateAndGet(next, Math::max);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the latest version, all handler versions up to this version are published already.
+     *
+     * @return latest published version
+     */
+    long published() {
+        long stamp = lock.writeLock();
+        try {
+            return counter.get();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+}
@@ -1,15 +1,30 @@
 package de.chrgroth.smartcron;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.chrgroth.smartcron.api.Smartcron;
+import de.chrgroth.smartcron.api.SmartcronListener;
+import de.chrgroth.smartcron.coordination.SmartcronCoordination;
+import de.chrgroth.smartcron.model.SmartcronEvent;
 import de.chrgroth.smartcron.model.SmartcronMetadata;
+import de.chrgroth.smartcron.model.SmartcronMetadataChanges;
+import de.chrgroth.smartcron.persistence.SmartcronStore;
+import de.chrgroth.smartcron.scheduler.PooledSmartcronScheduler;
+import de.chrgroth.smartcron.scheduler.SmartcronScheduler;
+import de.chrgroth.smartcron.scheduler.TimerSmartcronScheduler;
 
 /**
  * Allows to control {@link Smartcron} instances. A new smartcron is scheduled using {@link #schedule(Smartcron)}. Before application shutdown
@@ -21,31 +36,324 @@ public class Smartcrons {
 
     private static final Logger LOG = LoggerFactory.getLogger(Smartcrons.class);
 
-    private final Set<SmartcronHandler> smartcrons = new HashSet<>();
+    /**
+     * Default number of events buffered per subscription.
+     */
+    public static final int DEFAULT_SUBSCRIPTION_CAPACITY = 1024;
+
+    /**
+     * Default maximum number of events delivered to a listener at once.
+     */
+    public static final int DEFAULT_SUBSCRIPTION_BATCH_SIZE = 256;
+
+    /**
+     * Default interval in milliseconds to save changed smartcron state.
+     */
+    public static final long DEFAULT_PERSIST_INTERVAL = 1000L;
+
+    /**
+     * Default window in milliseconds first executions of bulk scheduled or activated smartcrons are spread over.
+     */
+    public static final long DEFAULT_STAGGER_WINDOW = 1000L;
+
+    private static final String ID_SEPARATOR = "#";
+
+    private final SmartcronEnvironment environment;
+    private final SmartcronRegistry smartcrons = new SmartcronRegistry();
+    private final SmartcronPersister persister;
+    private final ConcurrentMap<String, AtomicInteger> idSequences = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new instance executing all smartcrons on a {@link PooledSmartcronScheduler}.
+     */
+    public Smartcrons() {
+        this(new PooledSmartcronScheduler());
+    }
+
+    /**
+     * Creates a new instance executing all smartcrons on given scheduler. Use {@link TimerSmartcronScheduler} to get the legacy behavior of one timer
+     * thread per smartcron.
+     *
+     * @param scheduler
+     *            scheduler shared by all smartcrons
+     */
+    public Smartcrons(SmartcronScheduler scheduler) {
+        this(scheduler, null);
+    }
+
+    public Smartcrons(SmartcronScheduler scheduler, SmartcronStore store) {
+        this(scheduler, store, DEFAULT_PERSIST_INTERVAL);
+    }
+
+    public Smartcrons(SmartcronScheduler scheduler, SmartcronStore store, long persistInterval) {
+        this(scheduler, store, persistInterval, null);
+    }
+
+    /**
+     * Creates a new instance persisting smartcron state and coordinating executions with other nodes.
+     *
+     * @param scheduler
+     *            scheduler shared by all smartcrons
+     * @param store
+     *            store to save and restore state, null to disable persistence
+     * @param persistInterval
+     *            interval in milliseconds to save changed state
+     * @param coordination
+     *            coordination with other nodes, null to execute all smartcrons locally
+     */
+    public Smartcrons(SmartcronScheduler scheduler, SmartcronStore store, long persistInterval, SmartcronCoordination coordination) {
+
+        // validate
+        if (persistInterval < 1) {
+            throw new IllegalArgumentException("persist interval must be >= 1!!");
+        }
+
+        // init
+        environment = new SmartcronEnvironment(scheduler, coordination);
+        if (store == null) {
+            persister = null;
+        } else {
+            persister = new SmartcronPersister(this, store, scheduler.createLane("smartcron-persistence"), persistInterval);
+            persister.start();
+        }
+    }
+
+    /**
+     * Starts execution of given smartcron after {@link Smartcron#initialDelay()}, immediately by default. All further executions depend on smartcrons
+     * return value. The smartcron is identified by its class name, if already in use a sequence number is appended. Ids are stable as long as
+     * smartcrons of the same type are scheduled in the same order.
+     *
+     * @param smartcron
+     *            smartcron to be scheduled
+     * @return id of the scheduled smartcron, null if smartcron was null
+     */
+    public String schedule(Smartcron smartcron) {
+
+        // null guard
+        if (smartcron == null) {
+            LOG.warn("skip scheduling null smartcron");
+            return null;
+        }
+
+        // schedule using free id
+        SmartcronHandler handler = register(smartcron);
+        activate(handler, null, Math.max(0L, smartcron.initialDelay()), 0L);
+        return handler.getId();
+    }
+
+    /**
+     * Starts execution of given smartcron after the given delay instead of {@link Smartcron#initialDelay()}, identified like using
+     * {@link #schedule(Smartcron)}. The smoothing offset is added like for all relative first executions. A next execution restored from the
+     * smartcron store takes precedence.
+     *
+     * @param smartcron
+     *            smartcron to be scheduled
+     * @param initialDelay
+     *            delay of the first execution in milliseconds
+     * @return id of the scheduled smartcron, null if smartcron was null
+     */
+    public String schedule(Smartcron smartcron, long initialDelay) {
+
+        // validate
+        if (initialDelay < 0) {
+            throw new IllegalArgumentException("initial delay must be >= 0!!");
+        }
+
+        // null guard
+        if (smartcron == null) {
+            LOG.warn("skip scheduling null smartcron");
+            return null;
+        }
+
+        // schedule using free id
+        SmartcronHandler handler = register(smartcron);
+        activate(handler, null, initialDelay, 0L);
+        return handler.getId();
+    }
 
     /**
-     * Starts execution of given smartcron immediately. All further executions depend on smartcrons return value.
+     * Starts execution of given smartcron at the given date, identified like using {@link #schedule(Smartcron)}. Smoothing is not applied to the given
+     * date. A next execution restored from the smartcron store takes precedence.
      *
      * @param smartcron
      *            smartcron to be scheduled
+     * @param firstExecution
+     *            first execution, null to execute after {@link Smartcron#initialDelay()}
+     * @return id of the scheduled smartcron, null if smartcron was null
      */
-    public void schedule(Smartcron smartcron) {
+    public String scheduleAt(Smartcron smartcron, LocalDateTime firstExecution) {
 
         // null guard
         if (smartcron == null) {
             LOG.warn("skip scheduling null smartcron");
-            return;
+            return null;
+        }
+
+        // schedule using free id
+        SmartcronHandler handler = register(smartcron);
+        activate(handler, firstExecution, Math.max(0L, smartcron.initialDelay()), 0L);
+        return handler.getId();
+    }
+
+    /**
+     * Starts execution of given smartcron after {@link Smartcron#initialDelay()} using the given id. Using stable ids, i.e. a tenant id, allows to
+     * control a single instance of smartcrons sharing the same type and to restore its state after a restart.
+     *
+     * @param smartcron
+     *            smartcron to be scheduled
+     * @param id
+     *            unique id
+     * @return id of the scheduled smartcron
+     */
+    public String schedule(Smartcron smartcron, String id) {
+        return scheduleAt(smartcron, id, null);
+    }
+
+    /**
+     * Starts execution of given smartcron at the given date using the given id. Smoothing is not applied to the given date. A next execution restored
+     * from the smartcron store takes precedence.
+     *
+     * @param smartcron
+     *            smartcron to be scheduled
+     * @param id
+     *            unique id
+     * @param firstExecution
+     *            first execution, null to execute after {@link Smartcron#initialDelay()}
+     * @return id of the scheduled smartcron
+     */
+    public String scheduleAt(Smartcron smartcron, String id, LocalDateTime firstExecution) {
+
+        // validate
+        if (smartcron == null) {
+            throw new IllegalArgumentException("smartcron must not be null!!");
+        }
+        if (id == null) {
+            throw new IllegalArgumentException("id must not be null!!");
+        }
+
+        // schedule
+        SmartcronHandler handler = register(smartcron, id, true);
+        if (handler == null) {
+            throw new IllegalArgumentException("id " + id + " is already in use!!");
+        }
+        activate(handler, firstExecution, Math.max(0L, smartcron.initialDelay()), 0L);
+        return id;
+    }
+
+    private SmartcronHandler register(Smartcron smartcron) {
+
+        // use class name or next free sequence number of the type
+        String name = smartcron.getClass().getName();
+        SmartcronHandler handler = register(smartcron, name, false);
+        while (handler == null) {
+            handler = register(smartcron, name + ID_SEPARATOR + idSequences.computeIfAbsent(name, n -> new AtomicInteger(1)).incrementAndGet(), false);
+        }
+        return handler;
+    }
+
+    private SmartcronHandler register(Smartcron smartcron, String id, boolean explicitId) {
+
+        // fast id guard, creating a handler allocates a scheduler lane
+        if (!explicitId && smartcrons.contains(id)) {
+            return null;
         }
 
         // add handler
-        LOG.info("creating handler for " + smartcron);
-        SmartcronHandler handler = new SmartcronHandler(smartcron);
-        synchronized (smartcrons) {
-            smartcrons.add(handler);
+        LOG.info("creating handler " + id + " for " + smartcron);
+        SmartcronHandler handler = new SmartcronHandler(smartcron, id, environment);
+        if (!smartcrons.add(handler)) {
+            handler.shutdown();
+            return null;
         }
+        return handler;
+    }
 
-        // execute now
-        handler.activate();
+    private void activate(SmartcronHandler handler, LocalDateTime firstExecution, long initialDelay, long staggerOffset) {
+
+        // execute at restored next execution, given first execution or after initial delay, smoothing is applied by the handler
+        LocalDateTime restored = persister == null ? null : persister.restore(handler);
+        if (restored != null) {
+            handler.activateRestored(restored, staggerOffset);
+        } else if (firstExecution != null) {
+            handler.activate(firstExecution);
+        } else {
+            handler.activateAfter(initialDelay + staggerOffset);
+        }
+    }
+
+    /**
+     * Schedules all given smartcrons, spreading their first executions evenly over the default stagger window.
+     *
+     * @param smartcrons
+     *            smartcrons to be scheduled
+     * @return ids of the scheduled smartcrons in iteration order, never null
+     * @see #scheduleAll(Collection, long)
+     */
+    public List<String> scheduleAll(Collection<? extends Smartcron> smartcrons) {
+        return scheduleAll(smartcrons, DEFAULT_STAGGER_WINDOW);
+    }
+
+    /**
+     * Schedules all given smartcrons at once, identified like using {@link #schedule(Smartcron)}. First executions are spread evenly over the given
+     * window to avoid executing all smartcrons at the same time, restored next executions are used if available. All smartcrons are registered in a
+     * single update.
+     *
+     * @param smartcrons
+     *            smartcrons to be scheduled
+     * @param staggerWindow
+     *            window in milliseconds first executions are spread over, 0 to execute all immediately
+     * @return ids of the scheduled smartcrons in iteration order, never null
+     */
+    public List<String> scheduleAll(Collection<? extends Smartcron> smartcrons, long staggerWindow) {
+
+        // validate
+        if (smartcrons == null) {
+            throw new IllegalArgumentException("smartcrons must not be null!!");
+        }
+        if (staggerWindow < 0) {
+            throw new IllegalArgumentException("stagger window must be >= 0!!");
+        }
+
+        // create handlers using free ids
+        LOG.info("creating handlers for " + smartcrons.size() + " smartcrons");
+        List<SmartcronHandler> handlers = new ArrayList<>(smartcrons.size());
+        Set<String> ids = new HashSet<>();
+        for (Smartcron smartcron : smartcrons) {
+            if (smartcron == null) {
+                LOG.warn("skip scheduling null smartcron");
+                continue;
+            }
+            String name = smartcron.getClass().getName();
+            String id = name;
+            while (this.smartcrons.contains(id) || !ids.add(id)) {
+                id = name + ID_SEPARATOR + idSequences.computeIfAbsent(name, n -> new AtomicInteger(1)).incrementAndGet();
+            }
+            handlers.add(new SmartcronHandler(smartcron, id, environment));
+        }
+
+        // register all, ids taken concurrently are registered one by one keeping their stagger position
+        Set<SmartcronHandler> rejected = new HashSet<>(this.smartcrons.addAll(handlers));
+        List<SmartcronHandler> registered = new ArrayList<>(handlers.size());
+        for (SmartcronHandler handler : handlers) {
+            if (rejected.contains(handler)) {
+                handler.shutdown();
+                registered.add(register(handler.getSmartcron()));
+            } else {
+                registered.add(handler);
+            }
+        }
+
+        // activate staggered
+        activateStaggered(registered, staggerWindow);
+        return registered.stream().map(SmartcronHandler::getId).collect(Collectors.toList());
+    }
+
+    private void activateStaggered(List<SmartcronHandler> handlers, long staggerWindow) {
+        int size = handlers.size();
+        for (int i = 0; i < size; i++) {
+            SmartcronHandler handler = handlers.get(i);
+            activate(handler, null, Math.max(0L, handler.getSmartcron().initialDelay()), (long) ((double) staggerWindow * i / size));
+        }
     }
 
     /**
@@ -56,11 +364,7 @@ public class Smartcrons {
      */
     public void activate(Class<? extends Smartcron> type) {
         LOG.info("activating handlers for smartcrons of type: " + type);
-        iterateSmartcrons((iterator, handler) -> {
-            if (handler.isOfType(type) && !handler.isActive()) {
-                handler.activate();
-            }
-        });
+        smartcrons.ofType(type).stream().filter(handler -> !handler.isActive()).forEach(SmartcronHandler::activate);
     }
 
     /**
@@ -71,11 +375,122 @@ public class Smartcrons {
      */
     public void deactivate(Class<? extends Smartcron> type) {
         LOG.info("deactivating handlers for smartcrons of type: " + type);
-        iterateSmartcrons((iterator, handler) -> {
-            if (handler.isOfType(type) && handler.isActive()) {
-                handler.deactivate();
-            }
-        });
+        smartcrons.ofType(type).stream().filter(SmartcronHandler::isActive).forEach(SmartcronHandler::deactivate);
+    }
+
+    /**
+     * Activates all currently deactivated smartcrons matching given predicate, spreading their executions evenly over the default stagger window.
+     *
+     * @param filter
+     *            predicate selecting smartcrons to be activated
+     * @return number of activated smartcrons
+     * @see #activateAll(Predicate, long)
+     */
+    public int activateAll(Predicate<Smartcron> filter) {
+        return activateAll(filter, DEFAULT_STAGGER_WINDOW);
+    }
+
+    /**
+     * Activates all currently deactivated smartcrons matching given predicate, spreading their executions evenly over the given window.
+     *
+     * @param filter
+     *            predicate selecting smartcrons to be activated
+     * @param staggerWindow
+     *            window in milliseconds executions are spread over, 0 to execute all immediately
+     * @return number of activated smartcrons
+     */
+    public int activateAll(Predicate<Smartcron> filter, long staggerWindow) {
+
+        // validate
+        if (filter == null) {
+            throw new IllegalArgumentException("filter must not be null!!");
+        }
+        if (staggerWindow < 0) {
+            throw new IllegalArgumentException("stagger window must be >= 0!!");
+        }
+
+        // activate
+        List<SmartcronHandler> handlers = smartcrons.all().stream().filter(handler -> !handler.isActive() && filter.test(handler.getSmartcron()))
+                .collect(Collectors.toList());
+        LOG.info("activating " + handlers.size() + " smartcron handlers");
+        activateStaggered(handlers, staggerWindow);
+        return handlers.size();
+    }
+
+    /**
+     * Deactivates all currently active smartcrons matching given predicate.
+     *
+     * @param filter
+     *            predicate selecting smartcrons to be deactivated
+     * @return number of deactivated smartcrons
+     */
+    public int deactivateAll(Predicate<Smartcron> filter) {
+
+        // validate
+        if (filter == null) {
+            throw new IllegalArgumentException("filter must not be null!!");
+        }
+
+        // deactivate
+        List<SmartcronHandler> handlers = smartcrons.all().stream().filter(handler -> handler.isActive() && filter.test(handler.getSmartcron()))
+                .collect(Collectors.toList());
+        LOG.info("deactivating " + handlers.size() + " smartcron handlers");
+        handlers.forEach(SmartcronHandler::deactivate);
+        return handlers.size();
+    }
+
+    /**
+     * Activates the smartcron with given id if deactivated.
+     *
+     * @param id
+     *            smartcron id
+     * @return true if smartcron exists, false otherwise
+     */
+    public boolean activateById(String id) {
+        SmartcronHandler handler = smartcrons.byId(id);
+        if (handler == null) {
+            return false;
+        }
+        handler.activate();
+        return true;
+    }
+
+    /**
+     * Deactivates the smartcron with given id if active.
+     *
+     * @param id
+     *            smartcron id
+     * @return true if smartcron exists, false otherwise
+     */
+    public boolean deactivateById(String id) {
+        SmartcronHandler handler = smartcrons.byId(id);
+        if (handler == null) {
+            return false;
+        }
+        handler.deactivate();
+        return true;
+    }
+
+    /**
+     * Moves the next execution of the smartcron with given id, activating it if deactivated. An execution in progress is not affected, its returned
+     * next execution is used instead.
+     *
+     * @param id
+     *            smartcron id
+     * @param nextExecution
+     *            next execution
+     * @return true if next execution was moved, false if smartcron does not exist or is being executed
+     */
+    public boolean rescheduleById(String id, LocalDateTime nextExecution) {
+
+        // validate
+        if (nextExecution == null) {
+            throw new IllegalArgumentException("next execution must not be null!!");
+        }
+
+        // reschedule
+        SmartcronHandler handler = smartcrons.byId(id);
+        return handler != null && handler.reschedule(nextExecution);
     }
 
     /**
@@ -84,14 +499,33 @@ public class Smartcrons {
      * @return metadata for all removed smartcrons, never null
      */
     public Set<SmartcronMetadata> purge() {
-        Set<SmartcronMetadata> result = new HashSet<>();
+        return purge(smartcron -> true);
+    }
+
+    /**
+     * Removes all inactive smartcrons matching given predicate from system.
+     *
+     * @param filter
+     *            predicate selecting smartcrons to be removed
+     * @return metadata for all removed smartcrons, never null
+     */
+    public Set<SmartcronMetadata> purge(Predicate<Smartcron> filter) {
+
+        // validate
+        if (filter == null) {
+            throw new IllegalArgumentException("filter must not be null!!");
+        }
 
         // purge
-        LOG.info("removing all inactive smartcron handlers");
-        iterateSmartcrons((iterator, handler) -> {
-            if (!handler.isActive()) {
-                LOG.info("removing handler: " + handler);
-                iterator.remove();
+        Set<SmartcronMetadata> result = new HashSet<>();
+        LOG.info("removing inactive smartcron handlers");
+        smartcrons.all().stream().filter(handler -> !handler.isActive() && filter.test(handler.getSmartcron())).forEach(handler -> {
+            if (smartcrons.remove(handler)) {
+                LOG.info("removed handler: " + handler);
+                environment.getEvents().publish(SmartcronEvent.Type.PURGED, handler.getId(), handler.getName(), null);
+                if (persister != null) {
+                    persister.remove(handler.getId());
+                }
                 result.add(handler.cretaeMetadata());
             }
         });
@@ -100,32 +534,6 @@ public class Smartcrons {
         return result;
     }
 
-    private interface IterationCallback {
-
-        /**
-         * Called per iteration.
-         *
-         * @param iterator
-         *            current iterator
-         * @param handler
-         *            handler instance
-         */
-        void handle(Iterator<SmartcronHandler> iterator, SmartcronHandler handler);
-    }
-
-    private void iterateSmartcrons(IterationCallback callback) {
-
-        // walk all timer tasks
-        synchronized (smartcrons) {
-            Iterator<SmartcronHandler> iterator = smartcrons.iterator();
-            while (iterator.hasNext()) {
-
-                // delegate
-                callback.handle(iterator, iterator.next());
-            }
-        }
-    }
-
     /**
      * Returns metadata for all smartcrons with matching type.
      *
@@ -134,7 +542,19 @@ public class Smartcrons {
      * @return metadata, never null
      */
     public Set<SmartcronMetadata> getMetadata(Class<? extends Smartcron> type) {
-        return new HashSet<>(smartcrons).stream().filter(s -> s.isOfType(type)).map(s -> s.cretaeMetadata()).collect(Collectors.toSet());
+        return smartcrons.ofType(type).stream().map(s -> s.cretaeMetadata()).collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns metadata for the smartcron with given id.
+     *
+     * @param id
+     *            smartcron id
+     * @return metadata, null if smartcron does not exist
+     */
+    public SmartcronMetadata getMetadataById(String id) {
+        SmartcronHandler handler = smartcrons.byId(id);
+        return handler == null ? null : handler.cretaeMetadata();
     }
 
     /**
@@ -143,14 +563,112 @@ public class Smartcrons {
      * @return metadata, never null
      */
     public Set<SmartcronMetadata> getMetadata() {
-        return new HashSet<>(smartcrons).stream().map(s -> s.cretaeMetadata()).collect(Collectors.toSet());
+        return smartcrons.all().stream().map(s -> s.cretaeMetadata()).collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns metadata for all currently scheduled smartcrons changed after given version. The history of each metadata contains only executions added
+     * after given version. Smartcrons removed using {@link #purge()} are not contained. Pass 0 to get all smartcrons and the version of the returned
+     * changes to get subsequent changes.
+     *
+     * @param version
+     *            version of previously returned changes
+     * @return changes, never null
+     */
+    public SmartcronMetadataChanges getMetadataChanges(long version) {
+        return getMetadataChanges(version, false);
     }
 
     /**
-     * Cancels all scheduled smartcrons.
+     * Returns metadata changed after given version, optionally skipping running smartcrons. Leaving a running state always changes the version, so
+     * skipped smartcrons are contained in subsequent changes.
+     *
+     * @param version
+     *            version of previously returned changes
+     * @param skipRunning
+     *            true to skip smartcrons currently executed
+     * @return changes, never null
+     */
+    SmartcronMetadataChanges getMetadataChanges(long version, boolean skipRunning) {
+        long watermark = environment.getVersions().published();
+        Set<SmartcronMetadata> changed = smartcrons.all().stream().filter(s -> s.getVersion() > version && !(skipRunning && s.isRunning()))
+                .map(s -> s.createMetadataChanges(version, watermark)).collect(Collectors.toSet());
+        return new SmartcronMetadataChanges(watermark, changed);
+    }
+
+    /**
+     * Subscribes given listener to all smartcron events using default capacity and batch size.
+     *
+     * @param listener
+     *            listener to be subscribed
+     * @return subscription, never null
+     * @see #subscribe(SmartcronListener, int, int)
+     */
+    public SmartcronSubscription subscribe(SmartcronListener listener) {
+        return subscribe(listener, DEFAULT_SUBSCRIPTION_CAPACITY, DEFAULT_SUBSCRIPTION_BATCH_SIZE);
+    }
+
+    /**
+     * Subscribes given listener to all smartcron events. Events are buffered and delivered in batches asynchronously, so a slow listener never delays
+     * smartcron executions. If more than <code>capacity</code> events are pending, new events are dropped, see
+     * {@link SmartcronSubscription#getDropped()}.
+     *
+     * @param listener
+     *            listener to be subscribed
+     * @param capacity
+     *            maximum number of buffered events
+     * @param maxBatchSize
+     *            maximum number of events delivered at once
+     * @return subscription, never null
+     */
+    public SmartcronSubscription subscribe(SmartcronListener listener, int capacity, int maxBatchSize) {
+        return subscribe(listener, capacity, maxBatchSize, false);
+    }
+
+    /**
+     * Subscribes given listener to all smartcron events without ever dropping events, i.e. for auditing. Events are buffered and delivered in batches
+     * asynchronously like using {@link #subscribe(SmartcronListener, int, int)}, but if more than <code>capacity</code> events are pending, executions
+     * publishing events wait until the listener caught up.
+     *
+     * @param listener
+     *            listener to be subscribed
+     * @param capacity
+     *            maximum number of buffered events
+     * @param maxBatchSize
+     *            maximum number of events delivered at once
+     * @return subscription, never null
+     */
+    public SmartcronSubscription subscribeLossless(SmartcronListener listener, int capacity, int maxBatchSize) {
+        return subscribe(listener, capacity, maxBatchSize, true);
+    }
+
+    private SmartcronSubscription subscribe(SmartcronListener listener, int capacity, int maxBatchSize, boolean lossless) {
+
+        // argument guard
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null!!");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1!!");
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("batch size must be >= 1!!");
+        }
+
+        // subscribe
+        LOG.info("subscribing listener " + listener);
+        return environment.getEvents().subscribe(listener, capacity, maxBatchSize, lossless);
+    }
+
+    /**
+     * Cancels all scheduled smartcrons and stops the scheduler.
      */
     public void shutdown() {
-        smartcrons.forEach(s -> s.shutdown());
+        if (persister != null) {
+            persister.shutdown();
+        }
+        smartcrons.all().forEach(s -> s.shutdown());
         smartcrons.clear();
+        environment.shutdown();
     }
 }
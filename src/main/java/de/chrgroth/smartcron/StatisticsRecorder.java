@@ -0,0 +1,70 @@
+package de.chrgroth.smartcron;
+
+import java.util.concurrent.TimeUnit;
+
+import de.chrgroth.smartcron.model.SmartcronHistogram;
+import de.chrgroth.smartcron.model.SmartcronStatistics;
+
+/**
+ * Mutable execution statistics of a smartcron or a single mode, creating {@link SmartcronStatistics} snapshots. Snapshots are reused until the next
+ * execution is recorded. Memory usage is constant regardless of the number of recorded executions. Not thread safe.
+ *
+ * @author Christian Groth
+ */
+class StatisticsRecorder {
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private long errors;
+    private long misfires;
+    private final SmartcronHistogram.Recorder durations = new SmartcronHistogram.Recorder();
+    private final SmartcronHistogram.Recorder lags = new SmartcronHistogram.Recorder();
+    private SmartcronStatistics snapshot;
+
+    /**
+     * Records a single execution.
+     *
+     * @param duration
+     *            execution duration in nanoseconds
+     * @param lag
+     *            delay between planned and actual execution start in nanoseconds
+     * @param error
+     *            true if execution failed
+     * @param misfire
+     *            true if next execution was overdue already
+     */
+    void record(long duration, long lag, boolean error, boolean misfire) {
+        durations.record(duration);
+        lags.record(lag);
+        snapshot = null;
+        if (error) {
+            errors++;
+        }
+        if (misfire) {
+            misfires++;
+        }
+    }
+
+    /**
+     * Adds previously recorded statistics, i.e. restored from a {@link de.chrgroth.smartcron.persistence.SmartcronStore}.
+     *
+     * @param statistics
+     *            statistics to be added
+     */
+    void restore(SmartcronStatistics statistics) {
+        durations.add(statistics.getDurations());
+        lags.add(statistics.getLags());
+        errors += statistics.getErrors();
+        misfires += statistics.getMisfires();
+        snapshot = null;
+    }
+
+    SmartcronStatistics snapshot() {
+        if (snapshot == null) {
+            SmartcronHistogram durationHistogram = durations.snapshot();
+            snapshot = new SmartcronStatistics(durations.getCount(), errors, durationHistogram.getMean() / NANOS_PER_MILLI, durationHistogram, lags.snapshot(),
+                    misfires);
+        }
+        return snapshot;
+    }
+}
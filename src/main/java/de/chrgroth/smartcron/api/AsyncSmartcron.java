@@ -0,0 +1,38 @@
+package de.chrgroth.smartcron.api;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Smartcron executed asynchronously. Instead of blocking a scheduler thread until the next execution date is known, {@link #runAsync(SmartcronExecutionContext)}
+ * returns a stage completed later, i.e. by a non blocking I/O client. The scheduler thread is released right after the stage was returned, the next
+ * execution is planned once the stage completed. Exceptional completion is handled like uncaught exceptions of {@link Smartcron#run(SmartcronExecutionContext)}
+ * according to {@link #abortOnException()} and {@link #recover()}. On expiry of the {@link #executionTimeout()} the stage is cancelled if supported. A
+ * group permit is held until the stage completed.
+ *
+ * @author Christian Groth
+ */
+public interface AsyncSmartcron extends Smartcron {
+
+    /**
+     * Starts the execution of the scheduled smartcron.
+     *
+     * @param context
+     *            execution context, may be used until the returned stage completes
+     * @return stage completed with next execution date
+     */
+    CompletionStage<LocalDateTime> runAsync(SmartcronExecutionContext context);
+
+    /**
+     * Executes the smartcron blocking the calling thread until the stage returned by {@link #runAsync(SmartcronExecutionContext)} completed. Not used
+     * when scheduled using {@link de.chrgroth.smartcron.Smartcrons}.
+     *
+     * @param context
+     *            execution context
+     * @return next execution date
+     */
+    @Override
+    default LocalDateTime run(SmartcronExecutionContext context) {
+        return runAsync(context).toCompletableFuture().join();
+    }
+}
@@ -0,0 +1,76 @@
+package de.chrgroth.smartcron.api;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Smartcron executing at the fire dates of a cron expression, see {@link SmartcronExpression}. The first execution waits for the next fire date,
+ * following executions are computed from the planned execution date, so fire dates missed by long running executions are skipped.
+ *
+ * @author Christian Groth
+ */
+public abstract class CronSmartcron implements Smartcron {
+
+    private final SmartcronExpression expression;
+
+    protected CronSmartcron(String expression) {
+        this(SmartcronExpression.parse(expression));
+    }
+
+    protected CronSmartcron(SmartcronExpression expression) {
+
+        // validate
+        if (expression == null) {
+            throw new IllegalArgumentException("expression must not be null!!");
+        }
+        if (expression.next(LocalDateTime.now()) == null) {
+            throw new IllegalArgumentException("expression never fires: " + expression + "!!");
+        }
+
+        // done
+        this.expression = expression;
+    }
+
+    public SmartcronExpression getExpression() {
+        return expression;
+    }
+
+    /**
+     * Executes the smartcron, the next execution is computed from the cron expression.
+     *
+     * @param context
+     *            execution context
+     */
+    protected abstract void execute(SmartcronExecutionContext context);
+
+    @Override
+    public final LocalDateTime run(SmartcronExecutionContext context) {
+
+        // execute
+        execute(context);
+
+        // next fire date after planned execution, or after now if overdue, fire dates are shifted by smoothing offset
+        long offset = context.getSmoothingOffset();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime scheduled = context.getScheduled();
+        LocalDateTime next = expression.next((scheduled != null && scheduled.isAfter(now) ? scheduled : now).minus(offset, ChronoUnit.MILLIS));
+        return next == null ? null : next.plus(offset, ChronoUnit.MILLIS);
+    }
+
+    /**
+     * Delays the first execution until the next fire date, rounded up to full milliseconds.
+     */
+    @Override
+    public long initialDelay() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = expression.next(now);
+        if (next == null) {
+            return 0L;
+        }
+        long nanos = Duration.between(now, next).toNanos();
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        return nanos > TimeUnit.MILLISECONDS.toNanos(millis) ? millis + 1 : millis;
+    }
+}
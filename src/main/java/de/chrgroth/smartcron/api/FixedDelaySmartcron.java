@@ -0,0 +1,51 @@
+package de.chrgroth.smartcron.api;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Smartcron executing with a fixed delay between the end of an execution and the start of the next one.
+ *
+ * @author Christian Groth
+ */
+public abstract class FixedDelaySmartcron implements Smartcron {
+
+    private final long delay;
+
+    protected FixedDelaySmartcron(long delay, ChronoUnit unit) {
+
+        // validate
+        if (delay < 1) {
+            throw new IllegalArgumentException("delay must be >= 1!!");
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("unit must not be null!!");
+        }
+
+        // done
+        this.delay = unit.getDuration().multipliedBy(delay).toMillis();
+    }
+
+    /**
+     * Returns the delay between executions.
+     *
+     * @return delay in milliseconds
+     */
+    public long getDelay() {
+        return delay;
+    }
+
+    /**
+     * Executes the smartcron, the next execution is planned one delay after this execution finished.
+     *
+     * @param context
+     *            execution context
+     */
+    protected abstract void execute(SmartcronExecutionContext context);
+
+    @Override
+    public final LocalDateTime run(SmartcronExecutionContext context) {
+        execute(context);
+        return LocalDateTime.now().plus(delay, ChronoUnit.MILLIS);
+    }
+}
@@ -0,0 +1,61 @@
+package de.chrgroth.smartcron.api;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Smartcron executing at a fixed rate. Next executions are computed from the planned execution date instead of now, so executions do not drift by
+ * execution duration and scheduling delays. Executions taking longer than the period are handled according to {@link #misfirePolicy()}, use
+ * {@link SmartcronMisfirePolicy#SKIP} to keep the original rate.
+ *
+ * @author Christian Groth
+ */
+public abstract class FixedRateSmartcron implements Smartcron {
+
+    private final long period;
+
+    protected FixedRateSmartcron(long period, ChronoUnit unit) {
+
+        // validate
+        if (period < 1) {
+            throw new IllegalArgumentException("period must be >= 1!!");
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("unit must not be null!!");
+        }
+
+        // done
+        this.period = unit.getDuration().multipliedBy(period).toMillis();
+    }
+
+    /**
+     * Returns the period between executions.
+     *
+     * @return period in milliseconds
+     */
+    public long getPeriod() {
+        return period;
+    }
+
+    /**
+     * Executes the smartcron, the next execution is planned one period after this execution was planned.
+     *
+     * @param context
+     *            execution context
+     */
+    protected abstract void execute(SmartcronExecutionContext context);
+
+    @Override
+    public final LocalDateTime run(SmartcronExecutionContext context) {
+
+        // planned execution, start of first execution if executed immediately
+        LocalDateTime scheduled = context.getScheduled();
+        LocalDateTime planned = scheduled != null ? scheduled : LocalDateTime.now();
+
+        // execute
+        execute(context);
+
+        // next period
+        return planned.plus(period, ChronoUnit.MILLIS);
+    }
+}
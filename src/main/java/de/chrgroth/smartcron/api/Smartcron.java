@@ -15,6 +15,10 @@ public interface Smartcron {
 
     int DEFAULT_MAX_EXECUTION_HISTORY_SIZE = 100;
 
+    long DEFAULT_MISFIRE_THRESHOLD = 1000L;
+
+    long DEFAULT_MISFIRE_JITTER_WINDOW = 1000L;
+
     /**
      * Executes the scheduled smartcron and returns next execution date.
      *
@@ -42,6 +46,89 @@ public interface Smartcron {
         return DEFAULT_MAX_EXECUTION_HISTORY_SIZE;
     }
 
+    /**
+     * Tells whether execution history should be stored in compact form. Compact history keeps all values in primitive arrays and creates
+     * {@link SmartcronExecution} instances only when {@link SmartcronMetadata#getHistory()} is requested. Recommended for large histories, dates are
+     * stored with millisecond precision.
+     *
+     * @return true if history should be stored in compact form, false otherwise
+     */
+    default boolean compactExecutionHistory() {
+        return false;
+    }
+
+    /**
+     * Tells which execution group the smartcron belongs to. Executions of all smartcrons in a group are limited to the groups max concurrency. Groups
+     * are identified by name, the definition of the first scheduled smartcron of a group is used.
+     *
+     * @return execution group, null for unlimited executions
+     */
+    default SmartcronGroup executionGroup() {
+        return null;
+    }
+
+    /**
+     * Tells how long to wait before the first execution when activated without an explicit first execution. Allows to start services without running
+     * all smartcrons at once, a next execution restored from the smartcron store takes precedence.
+     *
+     * @return initial delay in milliseconds, 0 to execute immediately
+     */
+    default long initialDelay() {
+        return 0L;
+    }
+
+    /**
+     * Tells the window next executions are spread over to avoid many smartcrons running at the same time, for example all returning the top of the
+     * hour. The first execution is delayed by a stable offset within the window derived from the smartcron id, following executions computed relative to
+     * the previous one keep this shift. Absolute dates must be shifted by {@link SmartcronExecutionContext#getSmoothingOffset()}, the offset is exposed
+     * by {@link SmartcronExecution#getSmoothingOffset()} as well.
+     *
+     * @return smoothing window in milliseconds, 0 to disable smoothing
+     */
+    default long smoothingWindow() {
+        return 0L;
+    }
+
+    /**
+     * Defines how a next execution is handled being overdue by more than {@link #misfireThreshold()} already when planned. Misfires are counted in
+     * {@link de.chrgroth.smartcron.model.SmartcronStatistics#getMisfires()}.
+     *
+     * @return misfire policy
+     */
+    default SmartcronMisfirePolicy misfirePolicy() {
+        return SmartcronMisfirePolicy.FIRE_ONCE;
+    }
+
+    /**
+     * Tells how long a next execution may be overdue when planned before being handled as misfire.
+     *
+     * @return misfire threshold in milliseconds
+     */
+    default long misfireThreshold() {
+        return DEFAULT_MISFIRE_THRESHOLD;
+    }
+
+    /**
+     * Tells the window misfired executions are spread over using {@link SmartcronMisfirePolicy#JITTER}.
+     *
+     * @return jitter window in milliseconds
+     */
+    default long misfireJitterWindow() {
+        return DEFAULT_MISFIRE_JITTER_WINDOW;
+    }
+
+    /**
+     * Tells how long an execution may take. On expiry the execution is completed with a timeout error and handled like an uncaught exception according to
+     * {@link #abortOnException()} and {@link #recover()}. The running execution is flagged as cancelled in {@link SmartcronExecutionContext#isCancelled()}
+     * and its thread is interrupted. Synchronous executions are completed once returned, implementations not reacting to cancellation delay following
+     * executions.
+     *
+     * @return timeout in milliseconds, 0 to disable timeouts
+     */
+    default long executionTimeout() {
+        return 0L;
+    }
+
     /**
      * Defines if smartcron execution will be aborted on uncaught exception. Overwrite to continue after uncaught exception and be sure to implement
      * {@link #recover()} to be able to start next execution;
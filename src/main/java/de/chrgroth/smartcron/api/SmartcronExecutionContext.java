@@ -1,8 +1,10 @@
 package de.chrgroth.smartcron.api;
 
+import java.time.LocalDateTime;
+
 /**
  * Context per {@link Smartcron} execution allowing to set the execution mode, block this execution in history (if trackng is enabled, @see
- * {@link Smartcron#executionHistory()}) or mark execution as failed.
+ * {@link Smartcron#executionHistory()}), mark execution as failed or check for cancellation.
  *
  * @author Christian Groth
  */
@@ -13,9 +15,59 @@ public class SmartcronExecutionContext {
      */
     public static final String MODE_DEFAULT = "default";
 
+    private final LocalDateTime scheduled;
+    private final long smoothingOffset;
     private String mode = MODE_DEFAULT;
     private String error;
     private boolean ignoreInHistory = false;
+    private volatile boolean cancelled;
+
+    public SmartcronExecutionContext() {
+        this(null);
+    }
+
+    /**
+     * Creates a new context for an execution planned at the given date.
+     *
+     * @param scheduled
+     *            planned execution date, null if executed immediately
+     */
+    public SmartcronExecutionContext(LocalDateTime scheduled) {
+        this(scheduled, 0L);
+    }
+
+    /**
+     * Creates a new context for an execution planned at the given date of a smoothed smartcron.
+     *
+     * @param scheduled
+     *            planned execution date, null if executed immediately
+     * @param smoothingOffset
+     *            offset all executions are shifted by in milliseconds
+     */
+    public SmartcronExecutionContext(LocalDateTime scheduled, long smoothingOffset) {
+        this.scheduled = scheduled;
+        this.smoothingOffset = smoothingOffset;
+    }
+
+    /**
+     * Returns the date this execution was planned at, as returned by the previous execution or shifted by the smoothing offset for the first execution.
+     * Computing the next execution relative to this date instead of now avoids drifting by execution duration and scheduling delays.
+     *
+     * @return planned execution date, null if executed immediately
+     */
+    public LocalDateTime getScheduled() {
+        return scheduled;
+    }
+
+    /**
+     * Returns the offset all executions are shifted by, see {@link Smartcron#smoothingWindow()}. Smartcrons computing absolute dates, like the top of the
+     * hour, have to add the offset to keep executions spread.
+     *
+     * @return smoothing offset in milliseconds
+     */
+    public long getSmoothingOffset() {
+        return smoothingOffset;
+    }
 
     public String getMode() {
         return mode;
@@ -40,4 +92,21 @@ public class SmartcronExecutionContext {
     public void setIgnoreInHistory(boolean ignoreInHistory) {
         this.ignoreInHistory = ignoreInHistory;
     }
+
+    /**
+     * Tells whether the execution was cancelled, i.e. due to exceeding {@link Smartcron#executionTimeout()}. Long running executions should check this
+     * regularly and return as soon as possible once cancelled.
+     *
+     * @return true if cancelled, false otherwise
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Marks the execution as cancelled, called on timeout.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
 }
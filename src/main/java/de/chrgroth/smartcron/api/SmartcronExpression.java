@@ -0,0 +1,308 @@
+package de.chrgroth.smartcron.api;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.util.Locale;
+
+/**
+ * Compiled cron expression computing next fire dates. Expressions consist of six whitespace separated fields second, minute, hour, day of month, month
+ * and day of week, the second may be omitted to use the standard five field form executing at second 0. Fields support <code>*</code>, <code>?</code>
+ * for day of month and day of week, values, ranges, lists and steps, i.e. <code>0 0/15 8-18 ? * MON-FRI</code>. Months and days of week may be given
+ * by three letter names, sunday is 0 or 7. If both day fields are restricted a day matching either field fires, like in standard cron.
+ * <p>
+ * Each field is compiled into a bitset, so next fire dates are computed by a constant number of bit operations per field without allocating
+ * intermediate objects. Dates are local dates in the system default time zone.
+ * </p>
+ *
+ * @author Christian Groth
+ */
+public final class SmartcronExpression {
+
+    private static final int SECONDS = 0;
+    private static final int MINUTES = 1;
+    private static final int HOURS = 2;
+    private static final int DAYS_OF_MONTH = 3;
+    private static final int MONTHS = 4;
+    private static final int DAYS_OF_WEEK = 5;
+    private static final int FIELDS = 6;
+
+    private static final int[] MIN = {0, 0, 0, 1, 1, 0};
+    private static final int[] MAX = {59, 59, 23, 31, 12, 7};
+    private static final String[] MONTH_NAMES = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC"};
+    private static final String[] DAY_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    private static final int DAYS_PER_WEEK = 7;
+    private static final int FOUR_WEEKS = 4 * DAYS_PER_WEEK;
+    private static final long WEEK_MASK = 0x7FL;
+    private static final int MARCH = 3;
+    private static final int[] WEEKDAY_OFFSETS = {0, 3, 2, 5, 0, 3, 5, 1, 4, 6, 2, 4};
+
+    private static final int LEAP_YEAR_CYCLE = 4;
+    private static final int CENTURY = 100;
+
+    // the calendar repeats after one gregorian cycle, so all fire dates exist within
+    private static final int GREGORIAN_CYCLE = 400;
+
+    private final String expression;
+    private final long seconds;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+    private final boolean daysOfMonthRestricted;
+    private final boolean daysOfWeekRestricted;
+
+    private SmartcronExpression(String expression, long[] masks, boolean daysOfMonthRestricted, boolean daysOfWeekRestricted) {
+        this.expression = expression;
+        seconds = masks[SECONDS];
+        minutes = masks[MINUTES];
+        hours = masks[HOURS];
+        daysOfMonth = masks[DAYS_OF_MONTH];
+        months = masks[MONTHS];
+        daysOfWeek = masks[DAYS_OF_WEEK];
+        this.daysOfMonthRestricted = daysOfMonthRestricted;
+        this.daysOfWeekRestricted = daysOfWeekRestricted;
+    }
+
+    /**
+     * Compiles the given cron expression.
+     *
+     * @param expression
+     *            cron expression with five or six fields
+     * @return compiled expression
+     */
+    public static SmartcronExpression parse(String expression) {
+
+        // validate
+        if (expression == null) {
+            throw new IllegalArgumentException("expression must not be null!!");
+        }
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length != FIELDS && fields.length != FIELDS - 1) {
+            throw new IllegalArgumentException("expression must have 5 or 6 fields: " + expression + "!!");
+        }
+
+        // compile fields, standard form executes at second 0
+        int shift = FIELDS - fields.length;
+        long[] masks = new long[FIELDS];
+        masks[SECONDS] = 1L;
+        for (int i = 0; i < fields.length; i++) {
+            masks[i + shift] = parseField(expression, fields[i].toUpperCase(Locale.ROOT), i + shift);
+        }
+
+        // sunday may be given as 0 or 7
+        if ((masks[DAYS_OF_WEEK] & 1L << DAYS_PER_WEEK) != 0L) {
+            masks[DAYS_OF_WEEK] = (masks[DAYS_OF_WEEK] | 1L) & WEEK_MASK;
+        }
+
+        // done
+        return new SmartcronExpression(expression, masks, !isWildcard(fields[DAYS_OF_MONTH - shift]), !isWildcard(fields[DAYS_OF_WEEK - shift]));
+    }
+
+    private static boolean isWildcard(String field) {
+        return "*".equals(field) || "?".equals(field);
+    }
+
+    private static long parseField(String expression, String field, int type) {
+        long mask = 0L;
+        for (String part : field.split(",")) {
+
+            // step
+            int step = 1;
+            String range = part;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(expression, part.substring(slash + 1));
+                range = part.substring(0, slash);
+                if (step < 1) {
+                    throw new IllegalArgumentException("step must be >= 1: " + expression + "!!");
+                }
+            }
+
+            // range
+            int from;
+            int to;
+            if ("*".equals(range) || "?".equals(range) && (type == DAYS_OF_MONTH || type == DAYS_OF_WEEK)) {
+                from = MIN[type];
+                to = max(type);
+            } else {
+                int dash = range.indexOf('-');
+                from = parseValue(expression, dash >= 0 ? range.substring(0, dash) : range, type);
+                to = dash >= 0 ? parseValue(expression, range.substring(dash + 1), type) : slash >= 0 ? max(type) : from;
+            }
+            if (from > to) {
+                throw new IllegalArgumentException("invalid range " + range + ": " + expression + "!!");
+            }
+
+            // set bits
+            for (int value = from; value <= to; value += step) {
+                mask |= 1L << value;
+            }
+        }
+        return mask;
+    }
+
+    private static int max(int type) {
+        return type == DAYS_OF_WEEK ? DAYS_PER_WEEK - 1 : MAX[type];
+    }
+
+    private static int parseValue(String expression, String value, int type) {
+
+        // names
+        String[] names = type == MONTHS ? MONTH_NAMES : type == DAYS_OF_WEEK ? DAY_NAMES : null;
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(value)) {
+                    return type == MONTHS ? i + 1 : i;
+                }
+            }
+        }
+
+        // numbers
+        int number = parseNumber(expression, value);
+        if (number < MIN[type] || number > MAX[type]) {
+            throw new IllegalArgumentException("value " + value + " out of range " + MIN[type] + "-" + MAX[type] + ": " + expression + "!!");
+        }
+        return number;
+    }
+
+    private static int parseNumber(String expression, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid value " + value + ": " + expression + "!!", e);
+        }
+    }
+
+    /**
+     * Computes the first fire date strictly after the given date.
+     *
+     * @param after
+     *            date to start search after
+     * @return next fire date, null if the expression never fires, i.e. on february 30th
+     */
+    public LocalDateTime next(LocalDateTime after) {
+
+        // start with next second
+        int year = after.getYear();
+        int month = after.getMonthValue();
+        int day = after.getDayOfMonth();
+        int hour = after.getHour();
+        int minute = after.getMinute();
+        int second = after.getSecond() + 1;
+
+        // move to next matching value field by field, carrying over to the next larger unit if none is left
+        int maxYear = year + GREGORIAN_CYCLE;
+        while (year <= maxYear) {
+
+            // month
+            int next = nextBit(months, month);
+            if (next != month) {
+                if (next < 0) {
+                    year++;
+                    month = 1;
+                } else {
+                    month = next;
+                }
+                day = 1;
+                hour = 0;
+                minute = 0;
+                second = 0;
+                continue;
+            }
+
+            // day
+            next = nextBit(days(year, month), day);
+            if (next != day) {
+                if (next < 0) {
+                    month++;
+                    day = 1;
+                } else {
+                    day = next;
+                }
+                hour = 0;
+                minute = 0;
+                second = 0;
+                continue;
+            }
+
+            // hour
+            next = nextBit(hours, hour);
+            if (next != hour) {
+                if (next < 0) {
+                    day++;
+                    hour = 0;
+                } else {
+                    hour = next;
+                }
+                minute = 0;
+                second = 0;
+                continue;
+            }
+
+            // minute
+            next = nextBit(minutes, minute);
+            if (next != minute) {
+                if (next < 0) {
+                    hour++;
+                    minute = 0;
+                } else {
+                    minute = next;
+                }
+                second = 0;
+                continue;
+            }
+
+            // second
+            next = nextBit(seconds, second);
+            if (next >= 0) {
+                return LocalDateTime.of(year, month, day, hour, minute, next);
+            }
+            minute++;
+            second = 0;
+        }
+
+        // never fires
+        return null;
+    }
+
+    private long days(int year, int month) {
+
+        // days of week rotated to start with the first of the month and repeated over five weeks
+        long matching;
+        if (daysOfWeekRestricted) {
+            int first = weekday(year, month);
+            long week = (daysOfWeek >>> first | daysOfWeek << DAYS_PER_WEEK - first) & WEEK_MASK;
+            long weeks = week | week << DAYS_PER_WEEK;
+            weeks |= weeks << 2 * DAYS_PER_WEEK;
+            weeks |= week << FOUR_WEEKS;
+            matching = (daysOfMonthRestricted ? daysOfMonth : 0L) | weeks << 1;
+        } else {
+            matching = daysOfMonth;
+        }
+
+        // limit to length of month
+        int length = Month.of(month).length(Year.isLeap(year));
+        return matching & (1L << length + 1) - 2L;
+    }
+
+    private static int weekday(int year, int month) {
+        int y = month < MARCH ? year - 1 : year;
+        return (y + y / LEAP_YEAR_CYCLE - y / CENTURY + y / GREGORIAN_CYCLE + WEEKDAY_OFFSETS[month - 1] + 1) % DAYS_PER_WEEK;
+    }
+
+    private static int nextBit(long mask, int from) {
+        if (from >= Long.SIZE) {
+            return -1;
+        }
+        long remaining = mask & -1L << from;
+        return remaining == 0L ? -1 : Long.numberOfTrailingZeros(remaining);
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -0,0 +1,112 @@
+package de.chrgroth.smartcron.api;
+
+import java.util.Objects;
+
+/**
+ * Immutable execution group definition, see {@link Smartcron#executionGroup()}. All smartcrons of a group share a limited number of concurrent
+ * executions. Executions due while all permits are in use are handled according to the group {@link Policy}.
+ *
+ * @author Christian Groth
+ */
+public class SmartcronGroup {
+
+    /**
+     * Handling of executions due while all group permits are in use.
+     */
+    public enum Policy {
+
+        /**
+         * Execution waits until a permit is available, waiting executions are started in the order they became due.
+         */
+        DELAY,
+
+        /**
+         * Execution is skipped and retried after the group retry delay.
+         */
+        SKIP
+    }
+
+    /**
+     * Default delay in milliseconds before retrying a skipped execution.
+     */
+    public static final long DEFAULT_RETRY_DELAY = 1000L;
+
+    private final String name;
+    private final int maxConcurrency;
+    private final Policy policy;
+    private final long retryDelay;
+
+    public SmartcronGroup(String name, int maxConcurrency) {
+        this(name, maxConcurrency, Policy.DELAY);
+    }
+
+    public SmartcronGroup(String name, int maxConcurrency, Policy policy) {
+        this(name, maxConcurrency, policy, DEFAULT_RETRY_DELAY);
+    }
+
+    public SmartcronGroup(String name, int maxConcurrency, Policy policy, long retryDelay) {
+
+        // validate
+        if (name == null) {
+            throw new IllegalArgumentException("name must not be null!!");
+        }
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("max concurrency must be >= 1!!");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("policy must not be null!!");
+        }
+        if (retryDelay < 1) {
+            throw new IllegalArgumentException("retry delay must be >= 1!!");
+        }
+
+        // done
+        this.name = name;
+        this.maxConcurrency = maxConcurrency;
+        this.policy = policy;
+        this.retryDelay = retryDelay;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns the delay before a skipped execution is retried, only used with {@link Policy#SKIP}.
+     *
+     * @return retry delay in milliseconds
+     */
+    public long getRetryDelay() {
+        return retryDelay;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        SmartcronGroup other = (SmartcronGroup) obj;
+        return name.equals(other.name) && maxConcurrency == other.maxConcurrency && policy == other.policy && retryDelay == other.retryDelay;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, maxConcurrency, policy, retryDelay);
+    }
+
+    @Override
+    public String toString() {
+        return "SmartcronGroup [name=" + name + ", maxConcurrency=" + maxConcurrency + ", policy=" + policy + ", retryDelay=" + retryDelay + "]";
+    }
+}
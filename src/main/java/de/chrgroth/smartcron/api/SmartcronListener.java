@@ -0,0 +1,34 @@
+package de.chrgroth.smartcron.api;
+
+import java.util.List;
+
+import de.chrgroth.smartcron.model.SmartcronEvent;
+
+/**
+ * Listener receiving smartcron events, see {@link de.chrgroth.smartcron.Smartcrons#subscribe(SmartcronListener)}. Events are delivered in batches on a
+ * dispatcher thread, never on the thread executing a smartcron. A listener is never invoked concurrently by the same subscription.
+ *
+ * @author Christian Groth
+ */
+@FunctionalInterface
+public interface SmartcronListener {
+
+    /**
+     * Called with all events published since the last invocation, oldest first.
+     *
+     * @param events
+     *            events, never empty
+     */
+    void onEvents(List<SmartcronEvent> events);
+
+    /**
+     * Called before the next batch if events were dropped because the subscription buffer was full. Listeners relying on receiving all events, i.e. for
+     * auditing, should record the gap.
+     *
+     * @param count
+     *            number of events dropped since the last invocation
+     */
+    default void onDropped(long count) {
+
+    }
+}
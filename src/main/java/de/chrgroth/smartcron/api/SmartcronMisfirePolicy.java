@@ -0,0 +1,26 @@
+package de.chrgroth.smartcron.api;
+
+/**
+ * Handling of next executions being overdue already when planned, for example because an execution took longer than the interval used to compute
+ * the next execution or the JVM was paused. See {@link Smartcron#misfirePolicy()}.
+ *
+ * @author Christian Groth
+ */
+public enum SmartcronMisfirePolicy {
+
+    /**
+     * Overdue execution is started once immediately.
+     */
+    FIRE_ONCE,
+
+    /**
+     * Overdue execution is moved to the next future slot, using the interval between planned start of the current and the overdue execution. Starts
+     * immediately if no interval is known.
+     */
+    SKIP,
+
+    /**
+     * Overdue execution is started at a random point in time within the jitter window, spreading catch up executions of many smartcrons.
+     */
+    JITTER
+}
@@ -0,0 +1,162 @@
+package de.chrgroth.smartcron.coordination;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link SmartcronLeaseStore} keeping one file per lease in a directory shared by all nodes, i.e. on the same host or a network file system supporting
+ * file locks. Each lease is read and updated while holding an exclusive file lock.
+ *
+ * @author Christian Groth
+ */
+public class FileSmartcronLeaseStore implements SmartcronLeaseStore {
+
+    private static final String SUFFIX = ".lease";
+
+    // file locks are held per JVM, so access from multiple stores within the same JVM must be serialized
+    private static final ConcurrentMap<Path, Object> LOCKS = new ConcurrentHashMap<>();
+
+    private final Path directory;
+
+    /**
+     * Creates a new store.
+     *
+     * @param directory
+     *            lease directory, created if not existing
+     */
+    public FileSmartcronLeaseStore(Path directory) {
+        this.directory = directory.toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to create lease directory " + directory + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(String key, String owner, long duration) {
+        Path file = file(key);
+        synchronized (LOCKS.computeIfAbsent(file, f -> new Object())) {
+            try {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                try {
+                    FileLock lock = channel.lock();
+                    try {
+                        return tryAcquire(channel, owner, duration);
+                    } finally {
+                        lock.release();
+                    }
+                } finally {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("unable to acquire lease " + file + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static boolean tryAcquire(FileChannel channel, String owner, long duration) throws IOException {
+
+        // check current lease
+        long now = System.currentTimeMillis();
+        ByteBuffer current = read(channel);
+        if (current != null) {
+            long expires = current.getLong();
+            String currentOwner = StandardCharsets.UTF_8.decode(current).toString();
+            if (!currentOwner.equals(owner) && expires > now) {
+                return false;
+            }
+        }
+
+        // write lease
+        byte[] ownerBytes = owner.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer lease = ByteBuffer.allocate(Long.BYTES + ownerBytes.length).putLong(now + duration).put(ownerBytes);
+        ((Buffer) lease).flip();
+        channel.truncate(0L);
+        channel.position(0L);
+        while (lease.hasRemaining()) {
+            channel.write(lease);
+        }
+        channel.force(false);
+        return true;
+    }
+
+    @Override
+    public void release(String key, String owner) {
+        Path file = file(key);
+        synchronized (LOCKS.computeIfAbsent(file, f -> new Object())) {
+            if (!Files.exists(file)) {
+                return;
+            }
+            try {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                try {
+                    FileLock lock = channel.lock();
+                    try {
+                        release(channel, owner);
+                    } finally {
+                        lock.release();
+                    }
+                } finally {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("unable to release lease " + file + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static void release(FileChannel channel, String owner) throws IOException {
+        ByteBuffer current = read(channel);
+        if (current != null) {
+            current.getLong();
+            if (StandardCharsets.UTF_8.decode(current).toString().equals(owner)) {
+                channel.truncate(0L);
+                channel.force(false);
+            }
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel) throws IOException {
+
+        // empty guard
+        long size = channel.size();
+        if (size <= Long.BYTES) {
+            return null;
+        }
+
+        // read whole lease
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        int read = 0;
+        while (buffer.hasRemaining() && read >= 0) {
+            read = channel.read(buffer, buffer.position());
+        }
+        ((Buffer) buffer).flip();
+        return buffer;
+    }
+
+    private Path file(String key) {
+        try {
+            return directory.resolve(URLEncoder.encode(key, StandardCharsets.UTF_8.name()) + SUFFIX);
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FileSmartcronLeaseStore [directory=" + directory + "]";
+    }
+}
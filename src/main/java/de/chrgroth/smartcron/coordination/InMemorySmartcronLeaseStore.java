@@ -0,0 +1,47 @@
+package de.chrgroth.smartcron.coordination;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link SmartcronLeaseStore} keeping leases in memory, allowing to coordinate multiple {@link de.chrgroth.smartcron.Smartcrons} instances within the
+ * same JVM, i.e. in tests.
+ *
+ * @author Christian Groth
+ */
+public class InMemorySmartcronLeaseStore implements SmartcronLeaseStore {
+
+    private final ConcurrentMap<String, Lease> leases = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean tryAcquire(String key, String owner, long duration) {
+        long now = System.currentTimeMillis();
+        Lease lease = leases.compute(key, (k, current) -> current == null || current.owner.equals(owner) || current.expires <= now
+                ? new Lease(owner, now + duration) : current);
+        return lease.owner.equals(owner);
+    }
+
+    @Override
+    public void release(String key, String owner) {
+        leases.computeIfPresent(key, (k, current) -> current.owner.equals(owner) ? null : current);
+    }
+
+    @Override
+    public String toString() {
+        return "InMemorySmartcronLeaseStore [leases=" + leases.size() + "]";
+    }
+
+    /**
+     * Immutable lease.
+     */
+    private static final class Lease {
+
+        private final String owner;
+        private final long expires;
+
+        private Lease(String owner, long expires) {
+            this.owner = owner;
+            this.expires = expires;
+        }
+    }
+}
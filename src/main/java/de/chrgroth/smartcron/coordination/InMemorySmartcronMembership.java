@@ -0,0 +1,37 @@
+package de.chrgroth.smartcron.coordination;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link SmartcronMembership} keeping members in memory, allowing to shard smartcrons across multiple {@link de.chrgroth.smartcron.Smartcrons}
+ * instances within the same JVM, i.e. in tests. Members are kept until they leave.
+ *
+ * @author Christian Groth
+ */
+public class InMemorySmartcronMembership implements SmartcronMembership {
+
+    private final Set<String> members = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void join(String nodeId) {
+        members.add(nodeId);
+    }
+
+    @Override
+    public void leave(String nodeId) {
+        members.remove(nodeId);
+    }
+
+    @Override
+    public Set<String> getMembers() {
+        return Collections.unmodifiableSet(new HashSet<>(members));
+    }
+
+    @Override
+    public String toString() {
+        return "InMemorySmartcronMembership [members=" + members + "]";
+    }
+}
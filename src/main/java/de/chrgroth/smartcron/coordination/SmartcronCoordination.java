@@ -0,0 +1,116 @@
+package de.chrgroth.smartcron.coordination;
+
+import java.util.UUID;
+
+/**
+ * Immutable configuration to coordinate smartcron executions of multiple nodes, passed to {@link de.chrgroth.smartcron.Smartcrons}. Given a lease store,
+ * a node acquires the lease of the smartcron before each execution, so each smartcron is executed by a single node of the cluster at a time. Held leases
+ * are renewed in the background, nodes not holding the lease retry after half the lease duration and take over once the lease expired. Given a
+ * membership, smartcrons are sharded across all members using consistent hashing and each node executes only its own share. Membership is refreshed in
+ * the background using the lease renewal interval, smartcrons owned by other nodes are parked until a membership change moves them to this node. If both
+ * are given, the owning node must also hold the lease, which prevents concurrent executions while nodes have different views of the membership.
+ *
+ * @author Christian Groth
+ */
+public class SmartcronCoordination {
+
+    /**
+     * Default lease duration in milliseconds.
+     */
+    public static final long DEFAULT_LEASE_DURATION = 30000L;
+
+    private static final int RENEWALS_PER_LEASE = 3;
+    private static final int RETRIES_PER_LEASE = 2;
+
+    private final SmartcronLeaseStore leaseStore;
+    private final SmartcronMembership membership;
+    private final String nodeId;
+    private final long leaseDuration;
+
+    public SmartcronCoordination(SmartcronLeaseStore leaseStore) {
+        this(leaseStore, UUID.randomUUID().toString());
+    }
+
+    public SmartcronCoordination(SmartcronLeaseStore leaseStore, String nodeId) {
+        this(leaseStore, nodeId, DEFAULT_LEASE_DURATION);
+    }
+
+    public SmartcronCoordination(SmartcronLeaseStore leaseStore, String nodeId, long leaseDuration) {
+        this(leaseStore, null, nodeId, leaseDuration);
+    }
+
+    public SmartcronCoordination(SmartcronMembership membership, String nodeId) {
+        this(null, membership, nodeId, DEFAULT_LEASE_DURATION);
+    }
+
+    /**
+     * Creates a new configuration.
+     *
+     * @param leaseStore
+     *            lease store, null to execute without leases
+     * @param membership
+     *            membership, null to execute all smartcrons on each node
+     * @param nodeId
+     *            id of this node
+     * @param leaseDuration
+     *            lease duration in milliseconds
+     */
+    public SmartcronCoordination(SmartcronLeaseStore leaseStore, SmartcronMembership membership, String nodeId, long leaseDuration) {
+
+        // validate
+        if (leaseStore == null && membership == null) {
+            throw new IllegalArgumentException("lease store or membership must not be null!!");
+        }
+        if (nodeId == null) {
+            throw new IllegalArgumentException("node id must not be null!!");
+        }
+        if (leaseDuration < RENEWALS_PER_LEASE) {
+            throw new IllegalArgumentException("lease duration must be >= " + RENEWALS_PER_LEASE + "!!");
+        }
+
+        // done
+        this.leaseStore = leaseStore;
+        this.membership = membership;
+        this.nodeId = nodeId;
+        this.leaseDuration = leaseDuration;
+    }
+
+    public SmartcronLeaseStore getLeaseStore() {
+        return leaseStore;
+    }
+
+    public SmartcronMembership getMembership() {
+        return membership;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getLeaseDuration() {
+        return leaseDuration;
+    }
+
+    /**
+     * Returns the interval held leases are renewed and membership is refreshed in.
+     *
+     * @return renewal interval in milliseconds
+     */
+    public long getRenewalInterval() {
+        return leaseDuration / RENEWALS_PER_LEASE;
+    }
+
+    /**
+     * Returns the delay before a node not holding a lease retries to execute it.
+     *
+     * @return retry delay in milliseconds
+     */
+    public long getRetryDelay() {
+        return leaseDuration / RETRIES_PER_LEASE;
+    }
+
+    @Override
+    public String toString() {
+        return "SmartcronCoordination [leaseStore=" + leaseStore + ", membership=" + membership + ", nodeId=" + nodeId + ", leaseDuration=" + leaseDuration + "]";
+    }
+}
@@ -0,0 +1,34 @@
+package de.chrgroth.smartcron.coordination;
+
+/**
+ * Shared storage of time limited leases, used to coordinate smartcron executions across nodes. A lease is held by exactly one owner until it expires
+ * or is released. Expiry is based on wall clock time, so clocks of all nodes must be synchronized reasonably well compared to the lease duration.
+ * Implementations must be thread safe.
+ *
+ * @author Christian Groth
+ */
+public interface SmartcronLeaseStore {
+
+    /**
+     * Acquires or renews the lease for given key. Succeeds if the lease is not held, expired or already held by given owner.
+     *
+     * @param key
+     *            lease key
+     * @param owner
+     *            acquiring owner
+     * @param duration
+     *            lease duration in milliseconds
+     * @return true if given owner holds the lease afterwards, false otherwise
+     */
+    boolean tryAcquire(String key, String owner, long duration);
+
+    /**
+     * Releases the lease for given key if held by given owner.
+     *
+     * @param key
+     *            lease key
+     * @param owner
+     *            releasing owner
+     */
+    void release(String key, String owner);
+}
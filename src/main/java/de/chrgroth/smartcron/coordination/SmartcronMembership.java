@@ -0,0 +1,35 @@
+package de.chrgroth.smartcron.coordination;
+
+import java.util.Set;
+
+/**
+ * Membership of nodes sharing smartcrons, used to shard smartcrons across nodes. Each node joins on startup, calls {@link #join(String)} periodically
+ * as heartbeat and leaves on shutdown. Implementations may drop nodes missing heartbeats. Implementations must be thread safe.
+ *
+ * @author Christian Groth
+ */
+public interface SmartcronMembership {
+
+    /**
+     * Adds given node to the members or refreshes its membership.
+     *
+     * @param nodeId
+     *            node id
+     */
+    void join(String nodeId);
+
+    /**
+     * Removes given node from the members.
+     *
+     * @param nodeId
+     *            node id
+     */
+    void leave(String nodeId);
+
+    /**
+     * Returns the ids of all current members.
+     *
+     * @return member ids, never null
+     */
+    Set<String> getMembers();
+}
@@ -0,0 +1,159 @@
+package de.chrgroth.smartcron.journal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.zip.CRC32;
+
+import de.chrgroth.smartcron.model.SmartcronExecution;
+
+/**
+ * Binary format of journal segments. A segment is a sequence of records, each consisting of payload length, payload and CRC32 checksum of the
+ * payload. Segments are named by the sequence number of their first entry.
+ *
+ * @author Christian Groth
+ */
+final class JournalCodec {
+
+    static final String SEGMENT_PREFIX = "journal-";
+    static final String SEGMENT_SUFFIX = ".log";
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final int NO_STRING = -1;
+    private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+    private static final String SEGMENT_FORMAT = "%020d";
+
+    private JournalCodec() {
+
+    }
+
+    static String segmentName(long firstSequence) {
+        return SEGMENT_PREFIX + String.format(SEGMENT_FORMAT, firstSequence) + SEGMENT_SUFFIX;
+    }
+
+    static boolean isSegment(Path file) {
+        String name = String.valueOf(file.getFileName());
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    static long firstSequence(Path segment) {
+        String name = String.valueOf(segment.getFileName());
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Encodes a complete record including length and checksum.
+     */
+    static byte[] encode(SmartcronJournalEntry entry) throws IOException {
+
+        // payload
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(payloadBytes)) {
+            SmartcronExecution execution = entry.getExecution();
+            out.writeLong(entry.getSequence());
+            writeString(out, entry.getId());
+            writeString(out, entry.getName());
+            out.writeLong(toEpochMillis(execution.getScheduled()));
+            out.writeLong(toEpochMillis(execution.getStarted()));
+            out.writeLong(execution.getStartLag());
+            out.writeLong(execution.getQueueWait());
+            out.writeLong(execution.getSmoothingOffset());
+            writeString(out, execution.getMode());
+            out.writeLong(execution.getDurationNanos());
+            writeString(out, execution.getError());
+            out.writeLong(toEpochMillis(execution.getNextExecution()));
+        }
+        byte[] payload = payloadBytes.toByteArray();
+
+        // record
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(payload.length + Integer.BYTES + Long.BYTES);
+        try (DataOutputStream out = new DataOutputStream(recordBytes)) {
+            out.writeInt(payload.length);
+            out.write(payload);
+            out.writeLong(checksum(payload));
+        }
+        return recordBytes.toByteArray();
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return entry, null at end of segment or if the record is incomplete or corrupt
+     */
+    static SmartcronJournalEntry read(DataInputStream in) throws IOException {
+        try {
+
+            // read and verify payload
+            int length = in.readInt();
+            if (length <= 0 || length > MAX_RECORD_SIZE) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            if (in.readLong() != checksum(payload)) {
+                return null;
+            }
+
+            // decode
+            DataInputStream data = new DataInputStream(new ByteArrayInputStream(payload));
+            long sequence = data.readLong();
+            String id = readString(data);
+            String name = readString(data);
+            LocalDateTime scheduled = fromEpochMillis(data.readLong());
+            LocalDateTime started = fromEpochMillis(data.readLong());
+            long startLag = data.readLong();
+            long queueWait = data.readLong();
+            long smoothingOffset = data.readLong();
+            String mode = readString(data);
+            long duration = data.readLong();
+            String error = readString(data);
+            LocalDateTime nextExecution = fromEpochMillis(data.readLong());
+            return new SmartcronJournalEntry(sequence, id, name,
+                    new SmartcronExecution(scheduled, started, startLag, queueWait, smoothingOffset, mode, duration, error, nextExecution));
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static long checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return crc.getValue();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NO_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == NO_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long toEpochMillis(LocalDateTime date) {
+        return date == null ? NO_DATE : date.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime fromEpochMillis(long epochMillis) {
+        return epochMillis == NO_DATE ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,321 @@
+package de.chrgroth.smartcron.journal;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.chrgroth.smartcron.api.SmartcronListener;
+import de.chrgroth.smartcron.model.SmartcronEvent;
+
+/**
+ * Write ahead journal of all smartcron executions, subscribed as {@link SmartcronListener} using
+ * {@link de.chrgroth.smartcron.Smartcrons#subscribeLossless(SmartcronListener, int, int)}. Events are delivered in batches off the execution path,
+ * each batch is written with a single write and sync (group commit). The journal is split into segments, a new segment is started once the current
+ * one exceeds the segment size. On startup a torn record at the end of the last segment is truncated. If writing a batch fails, partially written bytes
+ * are truncated and the batch is retained to be written with the next one, up to {@link #MAX_PENDING_RECORDS}. Use {@link SmartcronJournalReader} to
+ * read the journal.
+ *
+ * @author Christian Groth
+ */
+public class SmartcronJournal implements SmartcronListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SmartcronJournal.class);
+
+    /**
+     * Default segment size in bytes.
+     */
+    public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024L * 1024L;
+
+    /**
+     * Maximum number of records retained while writing fails. Further executions are rejected and counted as lost.
+     */
+    public static final int MAX_PENDING_RECORDS = 65536;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final boolean sync;
+    private final List<byte[]> pending = new ArrayList<>();
+    private FileChannel segment;
+    private long committed;
+    private long nextSequence;
+    private long dropped;
+    private long lost;
+
+    /**
+     * Opens the journal syncing each batch to disk using default segment size.
+     *
+     * @param directory
+     *            journal directory, created if not existing
+     */
+    public SmartcronJournal(Path directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE, true);
+    }
+
+    /**
+     * Opens the journal.
+     *
+     * @param directory
+     *            journal directory, created if not existing
+     * @param segmentSize
+     *            size in bytes after which a new segment is started
+     * @param sync
+     *            true to force each batch to disk, false to leave flushing to the operating system
+     */
+    public SmartcronJournal(Path directory, long segmentSize, boolean sync) {
+
+        // validate
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("segment size must be >= 1!!");
+        }
+
+        // open last segment
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = SmartcronJournalReader.segments(directory);
+            if (segments.isEmpty()) {
+                nextSequence = 1L;
+                open(nextSequence);
+            } else {
+                recover(segments.get(segments.size() - 1));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to open smartcron journal " + directory + ": " + e.getMessage(), e);
+        }
+    }
+
+    private synchronized void recover(Path last) throws IOException {
+
+        // find end of last complete record
+        long valid = 0L;
+        nextSequence = JournalCodec.firstSequence(last);
+        CountingInputStream counting = new CountingInputStream(new BufferedInputStream(Files.newInputStream(last)));
+        try (DataInputStream in = new DataInputStream(counting)) {
+            SmartcronJournalEntry entry = JournalCodec.read(in);
+            while (entry != null) {
+                valid = counting.getCount();
+                nextSequence = entry.getSequence() + 1;
+                entry = JournalCodec.read(in);
+            }
+        }
+
+        // truncate torn record and continue writing
+        segment = FileChannel.open(last, StandardOpenOption.WRITE);
+        if (segment.size() > valid) {
+            LOG.warn("truncating " + (segment.size() - valid) + " bytes of incomplete records in " + last);
+            segment.truncate(valid);
+        }
+        segment.position(valid);
+        committed = valid;
+    }
+
+    private void open(long firstSequence) throws IOException {
+        segment = FileChannel.open(directory.resolve(JournalCodec.segmentName(firstSequence)), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        committed = 0L;
+    }
+
+    @Override
+    public synchronized void onEvents(List<SmartcronEvent> events) {
+        try {
+
+            // retry retained records first if this batch would exceed the limit
+            long executions = events.stream().filter(event -> event.getType() == SmartcronEvent.Type.EXECUTED).count();
+            if (!pending.isEmpty() && pending.size() + executions > MAX_PENDING_RECORDS) {
+                retry();
+            }
+
+            // encode executions, rejecting executions exceeding the limit
+            long rejected = 0L;
+            for (SmartcronEvent event : events) {
+                if (event.getType() != SmartcronEvent.Type.EXECUTED) {
+                    continue;
+                }
+                if (pending.size() < MAX_PENDING_RECORDS) {
+                    pending.add(JournalCodec.encode(new SmartcronJournalEntry(nextSequence++, event.getId(), event.getName(), event.getExecution())));
+                } else {
+                    rejected++;
+                }
+            }
+            if (rejected > 0L) {
+                lost += rejected;
+                LOG.error("smartcron journal " + directory + " failed, lost " + rejected + " executions exceeding " + MAX_PENDING_RECORDS + " pending records");
+            }
+
+            // write
+            write();
+            if (rejected > 0L) {
+                throw new IllegalStateException("smartcron journal " + directory + " lost " + rejected + " executions!!");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to write smartcron journal " + directory + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void retry() {
+        try {
+            write();
+        } catch (IOException e) {
+            LOG.warn("unable to write " + pending.size() + " pending records to smartcron journal " + directory + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void onDropped(long count) {
+        dropped += count;
+        LOG.error("smartcron journal " + directory + " missed " + count + " events, increase subscription capacity");
+    }
+
+    private void write() throws IOException {
+
+        // empty guard
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // group commit after last complete record, keeping records for next batch on failure
+        ByteBuffer buffer = ByteBuffer.allocate(pending.stream().mapToInt(record -> record.length).sum());
+        pending.forEach(buffer::put);
+        ((Buffer) buffer).flip();
+        try {
+            if (segment.size() > committed) {
+                segment.truncate(committed);
+            }
+            segment.position(committed);
+            while (buffer.hasRemaining()) {
+                segment.write(buffer);
+            }
+            if (sync) {
+                segment.force(false);
+            }
+        } catch (IOException e) {
+            try {
+                segment.truncate(committed);
+            } catch (IOException truncateException) {
+                e.addSuppressed(truncateException);
+            }
+            throw e;
+        }
+        committed = segment.position();
+        pending.clear();
+
+        // roll segment
+        if (committed >= segmentSize) {
+            segment.close();
+            open(nextSequence);
+        }
+    }
+
+    /**
+     * Returns the sequence number of the next written entry.
+     *
+     * @return next sequence number
+     */
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Returns the number of events dropped by the subscription, missing in the journal.
+     *
+     * @return dropped events
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Returns the number of executions lost because writing failed and too many records were retained already.
+     *
+     * @return lost executions
+     */
+    public synchronized long getLost() {
+        return lost;
+    }
+
+    /**
+     * Returns the number of records retained because writing failed.
+     *
+     * @return pending records
+     */
+    public synchronized int getPending() {
+        return pending.size();
+    }
+
+    /**
+     * Writes retained records and closes the journal. Close the subscription using {@link de.chrgroth.smartcron.SmartcronSubscription#close()} before
+     * to write all buffered events.
+     */
+    public synchronized void close() {
+        try {
+            try {
+                write();
+            } finally {
+                segment.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to close smartcron journal " + directory + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Counts bytes read to find the end of the last complete record.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int result = super.read();
+            if (result >= 0) {
+                count++;
+            }
+            return result;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int result = super.read(b, off, len);
+            if (result > 0) {
+                count += result;
+            }
+            return result;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long result = super.skip(n);
+            count += result;
+            return result;
+        }
+
+        private long getCount() {
+            return count;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SmartcronJournal [directory=" + directory + ", segmentSize=" + segmentSize + ", sync=" + sync + "]";
+    }
+}
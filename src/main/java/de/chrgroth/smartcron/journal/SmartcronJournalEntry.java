@@ -0,0 +1,63 @@
+package de.chrgroth.smartcron.journal;
+
+import de.chrgroth.smartcron.model.SmartcronExecution;
+
+/**
+ * Immutable journal entry of a single smartcron execution.
+ *
+ * @author Christian Groth
+ */
+public class SmartcronJournalEntry {
+
+    private final long sequence;
+    private final String id;
+    private final String name;
+    private final SmartcronExecution execution;
+
+    public SmartcronJournalEntry(long sequence, String name, SmartcronExecution execution) {
+        this(sequence, name, name, execution);
+    }
+
+    public SmartcronJournalEntry(long sequence, String id, String name, SmartcronExecution execution) {
+        this.sequence = sequence;
+        this.id = id;
+        this.name = name;
+        this.execution = execution;
+    }
+
+    /**
+     * Returns the journal wide sequence number, strictly increasing in write order.
+     *
+     * @return sequence number
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns the id of the executed smartcron instance.
+     *
+     * @return id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the class name of the executed smartcron.
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    public SmartcronExecution getExecution() {
+        return execution;
+    }
+
+    @Override
+    public String toString() {
+        return "SmartcronJournalEntry [sequence=" + sequence + ", id=" + id + ", name=" + name + ", execution=" + execution + "]";
+    }
+}
@@ -0,0 +1,140 @@
+package de.chrgroth.smartcron.journal;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streaming reader of a {@link SmartcronJournal}. Segments are read one after another, so memory usage does not depend on journal size. Reading
+ * stops at the first incomplete record of a segment, so a journal may be read while being written.
+ *
+ * @author Christian Groth
+ */
+public class SmartcronJournalReader {
+
+    private final Path directory;
+
+    public SmartcronJournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        Stream<Path> files = Files.list(directory);
+        try {
+            return files.filter(JournalCodec::isSegment).sorted().collect(Collectors.toList());
+        } finally {
+            files.close();
+        }
+    }
+
+    /**
+     * Reads all entries in write order. The returned stream must be closed.
+     *
+     * @return entries, never null
+     */
+    public Stream<SmartcronJournalEntry> read() {
+        return read(0L);
+    }
+
+    /**
+     * Reads all entries starting at given sequence number in write order, skipping segments containing older entries only. The returned stream must be
+     * closed.
+     *
+     * @param fromSequence
+     *            sequence number of first entry
+     * @return entries, never null
+     */
+    public Stream<SmartcronJournalEntry> read(long fromSequence) {
+
+        // skip segments before sequence
+        List<Path> segments;
+        try {
+            segments = segments(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to list smartcron journal " + directory + ": " + e.getMessage(), e);
+        }
+        int first = 0;
+        while (first + 1 < segments.size() && JournalCodec.firstSequence(segments.get(first + 1)) <= fromSequence) {
+            first++;
+        }
+
+        // stream entries
+        EntryIterator iterator = new EntryIterator(segments.subList(first, segments.size()));
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .filter(entry -> entry.getSequence() >= fromSequence).onClose(iterator::close);
+    }
+
+    /**
+     * Iterates all entries of given segments, keeping at most one segment open.
+     */
+    private static final class EntryIterator implements Iterator<SmartcronJournalEntry> {
+
+        private final Iterator<Path> segments;
+        private DataInputStream in;
+        private SmartcronJournalEntry next;
+
+        private EntryIterator(List<Path> segments) {
+            this.segments = segments.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+
+                    // next entry of current segment
+                    if (in != null) {
+                        next = JournalCodec.read(in);
+                        if (next != null) {
+                            break;
+                        }
+                        close();
+                    }
+
+                    // next segment
+                    if (!segments.hasNext()) {
+                        return false;
+                    }
+                    in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segments.next())));
+                }
+                return true;
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException("unable to read smartcron journal: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public SmartcronJournalEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            SmartcronJournalEntry result = next;
+            next = null;
+            return result;
+        }
+
+        private void close() {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    in = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package de.chrgroth.smartcron.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable event about a smartcron, published to subscribed listeners. Only {@link Type#EXECUTED} events carry an execution.
+ *
+ * @author Christian Groth
+ */
+public class SmartcronEvent {
+
+    /**
+     * Event types.
+     */
+    public enum Type {
+        ACTIVATED, EXECUTED, DEACTIVATED, PURGED
+    }
+
+    private final Type type;
+    private final String id;
+    private final String name;
+    private final LocalDateTime timestamp;
+    private final SmartcronExecution execution;
+
+    public SmartcronEvent(Type type, String id, String name, LocalDateTime timestamp, SmartcronExecution execution) {
+        this.type = type;
+        this.id = id;
+        this.name = name;
+        this.timestamp = timestamp;
+        this.execution = execution;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the id of the smartcron instance.
+     *
+     * @return id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the smartcron class name.
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public SmartcronExecution getExecution() {
+        return execution;
+    }
+
+    @Override
+    public String toString() {
+        return "SmartcronEvent [type=" + type + ", id=" + id + ", name=" + name + ", timestamp=" + timestamp + ", execution=" + execution + "]";
+    }
+}
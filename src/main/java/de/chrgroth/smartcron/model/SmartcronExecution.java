@@ -1,9 +1,11 @@
 package de.chrgroth.smartcron.model;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Immutable metadata about a single smartcron execution.
+ * Immutable metadata about a single smartcron execution. Duration and start lag, the delay between planned and actual start, are measured using a
+ * monotonic clock in nanoseconds. The start lag includes the queue wait, the time spent waiting for a permit of the smartcrons execution group.
  *
  * @author Christian Groth
  */
@@ -11,6 +13,9 @@ public class SmartcronExecution {
 
     private final LocalDateTime scheduled;
     private final LocalDateTime started;
+    private final long startLag;
+    private final long queueWait;
+    private final long smoothingOffset;
     private final String mode;
     private final long duration;
     private final String error;
@@ -22,16 +27,43 @@ public class SmartcronExecution {
     }
 
     private SmartcronExecution() {
-        this(null, null, null, 0L, null, null, true);
+        this(null, null, 0L, 0L, 0L, null, 0L, null, null, true);
     }
 
-    public SmartcronExecution(LocalDateTime scheduled, LocalDateTime started, String mode, long duration, String error, LocalDateTime nextExecution) {
-        this(scheduled, started, mode, duration, error, nextExecution, false);
+    /**
+     * Creates a new execution.
+     *
+     * @param scheduled
+     *            planned execution start, including smoothing offset
+     * @param started
+     *            actual execution start
+     * @param startLag
+     *            delay between planned and actual execution start in nanoseconds
+     * @param queueWait
+     *            time spent waiting for an execution group permit in nanoseconds
+     * @param smoothingOffset
+     *            offset the schedule is shifted by smoothing in milliseconds
+     * @param mode
+     *            execution mode
+     * @param duration
+     *            duration in nanoseconds
+     * @param error
+     *            error message, null if successful
+     * @param nextExecution
+     *            next planned execution start
+     */
+    public SmartcronExecution(LocalDateTime scheduled, LocalDateTime started, long startLag, long queueWait, long smoothingOffset, String mode, long duration,
+            String error, LocalDateTime nextExecution) {
+        this(scheduled, started, startLag, queueWait, smoothingOffset, mode, duration, error, nextExecution, false);
     }
 
-    private SmartcronExecution(LocalDateTime scheduled, LocalDateTime started, String mode, long duration, String error, LocalDateTime nextExecution, boolean deactivated) {
+    private SmartcronExecution(LocalDateTime scheduled, LocalDateTime started, long startLag, long queueWait, long smoothingOffset, String mode, long duration,
+            String error, LocalDateTime nextExecution, boolean deactivated) {
         this.scheduled = scheduled;
         this.started = started;
+        this.startLag = startLag;
+        this.queueWait = queueWait;
+        this.smoothingOffset = smoothingOffset;
         this.mode = mode;
         this.duration = duration;
         this.error = error;
@@ -47,11 +79,53 @@ public class SmartcronExecution {
         return started;
     }
 
+    /**
+     * Returns the delay between planned and actual execution start.
+     *
+     * @return start lag in nanoseconds
+     */
+    public long getStartLag() {
+        return startLag;
+    }
+
+    /**
+     * Returns the time spent waiting for an execution group permit, see {@link de.chrgroth.smartcron.api.Smartcron#executionGroup()}.
+     *
+     * @return queue wait in nanoseconds
+     */
+    public long getQueueWait() {
+        return queueWait;
+    }
+
+    /**
+     * Returns the offset the schedule of the smartcron is shifted by to spread executions, see
+     * {@link de.chrgroth.smartcron.api.Smartcron#smoothingWindow()}.
+     *
+     * @return smoothing offset in milliseconds
+     */
+    public long getSmoothingOffset() {
+        return smoothingOffset;
+    }
+
     public String getMode() {
         return mode;
     }
 
+    /**
+     * Returns the execution duration.
+     *
+     * @return duration in milliseconds
+     */
     public long getDuration() {
+        return TimeUnit.NANOSECONDS.toMillis(duration);
+    }
+
+    /**
+     * Returns the execution duration.
+     *
+     * @return duration in nanoseconds
+     */
+    public long getDurationNanos() {
         return duration;
     }
 
@@ -69,7 +143,8 @@ public class SmartcronExecution {
 
     @Override
     public String toString() {
-        return "SmartcronExecution [scheduled=" + scheduled + ", started=" + started + ", mode=" + mode + ", duration=" + duration + ", error=" + error + ", nextExecution="
-                + nextExecution + ", deactivated=" + deactivated + "]";
+        return "SmartcronExecution [scheduled=" + scheduled + ", started=" + started + ", startLag=" + startLag + ", queueWait=" + queueWait + ", smoothingOffset="
+                + smoothingOffset + ", mode=" + mode + ", duration=" + duration + ", error=" + error + ", nextExecution=" + nextExecution + ", deactivated="
+                + deactivated + "]";
     }
 }
@@ -0,0 +1,241 @@
+package de.chrgroth.smartcron.model;
+
+import java.util.Arrays;
+
+/**
+ * Immutable log bucketed histogram of non negative values, i.e. durations in nanoseconds. Each power of two range is split into 16 linear sub buckets,
+ * so reported values are at most 6.25% above the recorded ones. Memory usage is bounded by the largest recorded value and never exceeds 960 buckets.
+ * New values are recorded using a {@link Recorder}.
+ *
+ * @author Christian Groth
+ */
+public final class SmartcronHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    private static final double PERCENT = 100.0d;
+    private static final double P50 = 50.0d;
+    private static final double P90 = 90.0d;
+    private static final double P99 = 99.0d;
+    private static final double P999 = 99.9d;
+
+    private static final SmartcronHistogram EMPTY = new SmartcronHistogram(new long[0], 0L, 0L, 0L, 0L);
+
+    private final long[] counts;
+    private final long count;
+    private final long min;
+    private final long max;
+    private final long total;
+
+    private SmartcronHistogram(long[] counts, long count, long min, long max, long total) {
+        this.counts = counts;
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.total = total;
+    }
+
+    public static SmartcronHistogram empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Restores a histogram from raw bucket counts, see {@link #getCounts()}.
+     *
+     * @param counts
+     *            bucket counts
+     * @param min
+     *            minimum recorded value
+     * @param max
+     *            maximum recorded value
+     * @param total
+     *            sum of all recorded values
+     * @return histogram, never null
+     */
+    public static SmartcronHistogram restore(long[] counts, long min, long max, long total) {
+
+        // validate
+        if (counts.length > MAX_BUCKETS) {
+            throw new IllegalArgumentException("counts must not exceed " + MAX_BUCKETS + " buckets!!");
+        }
+
+        // restore
+        long count = Arrays.stream(counts).sum();
+        return count == 0 ? EMPTY : new SmartcronHistogram(Arrays.copyOf(counts, counts.length), count, min, max, total);
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (magnitude - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int magnitude = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        long subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long lowest = (1L << magnitude) | (subBucket << (magnitude - SUB_BUCKET_BITS));
+        return lowest + (1L << (magnitude - SUB_BUCKET_BITS)) - 1;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the raw bucket counts, allowing to store and {@link #restore(long[], long, long, long)} the histogram.
+     *
+     * @return copy of bucket counts
+     */
+    public long[] getCounts() {
+        return Arrays.copyOf(counts, counts.length);
+    }
+
+    public double getMean() {
+        return count == 0 ? 0.0d : (double) total / count;
+    }
+
+    /**
+     * Returns the value at given percentile.
+     *
+     * @param percentile
+     *            percentile between 0 and 100
+     * @return value at percentile, 0 if histogram is empty
+     */
+    public long getValueAtPercentile(double percentile) {
+
+        // empty guard
+        if (count == 0) {
+            return 0L;
+        }
+
+        // walk buckets until enough values are seen
+        double boundedPercentile = Math.max(0.0d, Math.min(PERCENT, percentile));
+        long target = Math.max(1L, (long) Math.ceil(boundedPercentile / PERCENT * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.max(min, Math.min(max, highestValue(i)));
+            }
+        }
+
+        // done
+        return max;
+    }
+
+    public long getP50() {
+        return getValueAtPercentile(P50);
+    }
+
+    public long getP90() {
+        return getValueAtPercentile(P90);
+    }
+
+    public long getP99() {
+        return getValueAtPercentile(P99);
+    }
+
+    public long getP999() {
+        return getValueAtPercentile(P999);
+    }
+
+    @Override
+    public String toString() {
+        return "SmartcronHistogram [count=" + count + ", min=" + min + ", p50=" + getP50() + ", p90=" + getP90() + ", p99=" + getP99() + ", p999=" + getP999()
+                + ", max=" + max + "]";
+    }
+
+    /**
+     * Mutable recorder creating {@link SmartcronHistogram} snapshots. Not thread safe.
+     *
+     * @author Christian Groth
+     */
+    public static class Recorder {
+
+        private long[] counts = new long[SUB_BUCKETS];
+        private long count;
+        private long min = Long.MAX_VALUE;
+        private long max;
+        private long total;
+
+        /**
+         * Records given value, negative values are recorded as zero.
+         *
+         * @param value
+         *            value to be recorded
+         */
+        public void record(long value) {
+            long boundedValue = Math.max(0L, value);
+            int index = bucketIndex(boundedValue);
+            if (index >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.min(MAX_BUCKETS, Math.max(index + 1, counts.length * 2)));
+            }
+            counts[index]++;
+            count++;
+            min = Math.min(min, boundedValue);
+            max = Math.max(max, boundedValue);
+            total += boundedValue;
+        }
+
+        /**
+         * Adds all values of given histogram.
+         *
+         * @param histogram
+         *            histogram to be added
+         */
+        public void add(SmartcronHistogram histogram) {
+
+            // empty guard
+            if (histogram.count == 0) {
+                return;
+            }
+
+            // merge
+            if (histogram.counts.length > counts.length) {
+                counts = Arrays.copyOf(counts, histogram.counts.length);
+            }
+            for (int i = 0; i < histogram.counts.length; i++) {
+                counts[i] += histogram.counts[i];
+            }
+            count += histogram.count;
+            min = Math.min(min, histogram.min);
+            max = Math.max(max, histogram.max);
+            total += histogram.total;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Creates an immutable snapshot of all values recorded so far.
+         *
+         * @return snapshot, never null
+         */
+        public SmartcronHistogram snapshot() {
+            if (count == 0) {
+                return EMPTY;
+            }
+            return new SmartcronHistogram(Arrays.copyOf(counts, bucketIndex(max) + 1), count, min, max, total);
+        }
+    }
+}
@@ -1,39 +1,86 @@
 package de.chrgroth.smartcron.model;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 /**
- * Immutable smartcron instance metadata.
+ * Immutable smartcron instance metadata. Each change of a smartcron increases its version, metadata instances are reused as long as nothing changed.
  *
  * @author Christian Groth
  */
 public class SmartcronMetadata {
 
+    private final String id;
     private final String name;
+    private final long version;
     private final boolean active;
     private final LocalDateTime scheduled;
     private final SmartcronStatistics statistics;
-    private final Map<String, SmartcronStatistics> statisticsPerMode = new HashMap<>();
-    private final List<SmartcronExecution> history = new ArrayList<>();
+    private final Map<String, SmartcronStatistics> statisticsPerMode;
+    private final List<SmartcronExecution> history;
 
-    public SmartcronMetadata(String name, boolean active, LocalDateTime scheduled, SmartcronStatistics statistics, Map<String, SmartcronStatistics> statisticsPerMode,
-            List<SmartcronExecution> history) {
+    /**
+     * Creates new metadata without copying statistics per mode and history. Given map and list are owned by the created instance and must not be
+     * modified afterwards.
+     *
+     * @param id
+     *            instance id
+     * @param name
+     *            smartcron class name
+     * @param version
+     *            version of the snapshot
+     * @param active
+     *            true if active
+     * @param scheduled
+     *            next scheduled execution, may be null
+     * @param statistics
+     *            overall statistics
+     * @param statisticsPerMode
+     *            statistics per execution mode, owned by the created instance
+     * @param history
+     *            execution history, owned by the created instance
+     */
+    public SmartcronMetadata(String id, String name, long version, boolean active, LocalDateTime scheduled, SmartcronStatistics statistics,
+            Map<String, SmartcronStatistics> statisticsPerMode, List<SmartcronExecution> history) {
+        this.id = id;
         this.name = name;
+        this.version = version;
         this.active = active;
         this.scheduled = scheduled;
         this.statistics = statistics;
-        this.statisticsPerMode.putAll(statisticsPerMode);
-        this.history.addAll(history);
+        this.statisticsPerMode = Collections.unmodifiableMap(statisticsPerMode);
+        this.history = Collections.unmodifiableList(history);
     }
 
+    /**
+     * Returns the instance id, unique within a {@link de.chrgroth.smartcron.Smartcrons} instance.
+     *
+     * @return id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the smartcron class name, shared by all instances of the same type.
+     *
+     * @return name
+     */
     public String getName() {
         return name;
     }
 
+    /**
+     * Returns the metadata version, see {@link de.chrgroth.smartcron.Smartcrons#getMetadataChanges(long)}.
+     *
+     * @return version
+     */
+    public long getVersion() {
+        return version;
+    }
+
     public boolean isActive() {
         return active;
     }
@@ -47,7 +94,7 @@ public class SmartcronMetadata {
     }
 
     public Map<String, SmartcronStatistics> getStatisticsPerMode() {
-        return new HashMap<>(statisticsPerMode);
+        return statisticsPerMode;
     }
 
     public List<SmartcronExecution> getHistory() {
@@ -56,7 +103,7 @@ public class SmartcronMetadata {
 
     @Override
     public String toString() {
-        return "SmartcronMetadata [name=" + name + ", active=" + active + ", scheduled=" + scheduled + ", statistics=" + statistics + ", statisticsPerMode=" + statisticsPerMode
-                + ", history.size()=" + history.size() + "]";
+        return "SmartcronMetadata [id=" + id + ", name=" + name + ", version=" + version + ", active=" + active + ", scheduled=" + scheduled + ", statistics=" + statistics
+                + ", statisticsPerMode=" + statisticsPerMode + ", history.size()=" + history.size() + "]";
     }
 }
@@ -0,0 +1,35 @@
+package de.chrgroth.smartcron.model;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable set of smartcron metadata changed after a known version. The history of each contained metadata holds only executions added after that
+ * version. Use {@link #getVersion()} as lower bound to query the next changes.
+ *
+ * @author Christian Groth
+ */
+public class SmartcronMetadataChanges {
+
+    private final long version;
+    private final Set<SmartcronMetadata> metadata;
+
+    public SmartcronMetadataChanges(long version, Set<SmartcronMetadata> metadata) {
+        this.version = version;
+        this.metadata = Collections.unmodifiableSet(new HashSet<>(metadata));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Set<SmartcronMetadata> getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public String toString() {
+        return "SmartcronMetadataChanges [version=" + version + ", metadata.size()=" + metadata.size() + "]";
+    }
+}
@@ -1,24 +1,28 @@
 package de.chrgroth.smartcron.model;
 
 /**
- * Execution statistics for smartcrons.
+ * Execution statistics for smartcrons. Besides simple counters the statistics contain histograms of execution durations and schedule lags, the delay
+ * between planned and actual execution start, both in nanoseconds. Misfires count next executions being overdue already when planned, see
+ * {@link de.chrgroth.smartcron.api.Smartcron#misfirePolicy()}.
  *
  * @author Christian Groth
  */
 public class SmartcronStatistics {
 
-    private long count;
-    private long errors;
-    private double avgDuration;
+    private final long count;
+    private final long errors;
+    private final double avgDuration;
+    private final SmartcronHistogram durations;
+    private final SmartcronHistogram lags;
+    private final long misfires;
 
-    public SmartcronStatistics() {
-        this(0, 0, 0.0d);
-    }
-
-    public SmartcronStatistics(long count, long errors, double avgDuration) {
+    public SmartcronStatistics(long count, long errors, double avgDuration, SmartcronHistogram durations, SmartcronHistogram lags, long misfires) {
         this.count = count;
         this.errors = errors;
         this.avgDuration = avgDuration;
+        this.durations = durations;
+        this.lags = lags;
+        this.misfires = misfires;
     }
 
     public long getCount() {
@@ -33,8 +37,21 @@ public class SmartcronStatistics {
         return avgDuration;
     }
 
+    public SmartcronHistogram getDurations() {
+        return durations;
+    }
+
+    public SmartcronHistogram getLags() {
+        return lags;
+    }
+
+    public long getMisfires() {
+        return misfires;
+    }
+
     @Override
     public String toString() {
-        return "SmartcronStatistics [count=" + count + ", errors=" + errors + ", avgDuration=" + avgDuration + "]";
+        return "SmartcronStatistics [count=" + count + ", errors=" + errors + ", avgDuration=" + avgDuration + ", durations=" + durations + ", lags=" + lags
+                + ", misfires=" + misfires + "]";
     }
 }
@@ -0,0 +1,331 @@
+package de.chrgroth.smartcron.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.chrgroth.smartcron.model.SmartcronHistogram;
+import de.chrgroth.smartcron.model.SmartcronMetadata;
+import de.chrgroth.smartcron.model.SmartcronStatistics;
+
+/**
+ * Append only {@link SmartcronStore} keeping all state in a single local file. Each save appends one checksummed binary record per smartcron using a
+ * single channel write, the file is memory mapped on load. A torn record at the end of the file, left by a crash during write, is truncated. Once the
+ * file is more than twice as large as the latest records, live records are rewritten to a new file atomically replacing the old one.
+ *
+ * @author Christian Groth
+ */
+public class FileSmartcronStore implements SmartcronStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FileSmartcronStore.class);
+
+    private static final byte STATE = 1;
+    private static final byte REMOVED = 2;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final int HEADER_SIZE = Integer.BYTES;
+    private static final int CHECKSUM_SIZE = Long.BYTES;
+    private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+    private static final int COMPACTION_FACTOR = 2;
+    private static final long MIN_COMPACTION_SIZE = 64L * 1024L;
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Path file;
+    private final boolean sync;
+    private final Map<String, byte[]> live = new LinkedHashMap<>();
+    private FileChannel channel;
+    private long liveSize;
+
+    /**
+     * Opens the store syncing each save to disk.
+     *
+     * @param file
+     *            store file, created if not existing
+     */
+    public FileSmartcronStore(Path file) {
+        this(file, true);
+    }
+
+    /**
+     * Opens the store.
+     *
+     * @param file
+     *            store file, created if not existing
+     * @param sync
+     *            true to force each save to disk, false to leave flushing to the operating system
+     */
+    public FileSmartcronStore(Path file, boolean sync) {
+        this.file = file;
+        this.sync = sync;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            read();
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to open smartcron store " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void read() throws IOException {
+
+        // map whole file
+        long size = channel.size();
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+
+        // read records until end or torn record
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length <= 0 || length > MAX_RECORD_SIZE || buffer.remaining() < length + CHECKSUM_SIZE) {
+                ((Buffer) buffer).position(start);
+                break;
+            }
+            byte[] record = new byte[length];
+            buffer.get(record);
+            if (buffer.getLong() != checksum(record)) {
+                ((Buffer) buffer).position(start);
+                break;
+            }
+            apply(record);
+        }
+
+        // truncate torn record
+        if (buffer.position() < size) {
+            LOG.warn("truncating " + (size - buffer.position()) + " bytes of incomplete records in " + file);
+            channel.truncate(buffer.position());
+        }
+        channel.position(channel.size());
+    }
+
+    private void apply(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        byte type = buffer.get();
+        String id = readString(buffer);
+        byte[] previous = type == REMOVED ? live.remove(id) : live.put(id, record);
+        liveSize += (type == REMOVED ? 0 : recordSize(record)) - (previous == null ? 0 : recordSize(previous));
+    }
+
+    @Override
+    public synchronized Map<String, SmartcronMetadata> load() {
+        Map<String, SmartcronMetadata> result = new HashMap<>();
+        live.forEach((id, record) -> result.put(id, decode(record)));
+        return result;
+    }
+
+    @Override
+    public synchronized void save(Collection<SmartcronMetadata> metadata) {
+
+        // empty guard
+        if (metadata.isEmpty()) {
+            return;
+        }
+
+        // encode and append
+        Collection<byte[]> records = new ArrayList<>(metadata.size());
+        metadata.forEach(m -> records.add(encode(m)));
+        append(records);
+    }
+
+    @Override
+    public synchronized void remove(String id) {
+        if (live.containsKey(id)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeByte(REMOVED);
+                writeString(out, id);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            append(Collections.singletonList(bytes.toByteArray()));
+        }
+    }
+
+    private void append(Collection<byte[]> records) {
+        try {
+
+            // write all records at once
+            ByteBuffer buffer = ByteBuffer.allocate(records.stream().mapToInt(FileSmartcronStore::recordSize).sum());
+            for (byte[] record : records) {
+                buffer.putInt(record.length).put(record).putLong(checksum(record));
+                apply(record);
+            }
+            ((Buffer) buffer).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (sync) {
+                channel.force(false);
+            }
+
+            // compact
+            if (channel.size() > MIN_COMPACTION_SIZE && channel.size() > COMPACTION_FACTOR * liveSize) {
+                compact();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to write smartcron store " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void compact() throws IOException {
+        LOG.info("compacting smartcron store " + file + " from " + channel.size() + " to " + liveSize + " bytes");
+
+        // write live records to temporary file
+        Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+        FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate((int) liveSize);
+            for (byte[] record : live.values()) {
+                buffer.putInt(record.length).put(record).putLong(checksum(record));
+            }
+            ((Buffer) buffer).flip();
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            target.force(true);
+        } finally {
+            target.close();
+        }
+
+        // replace store file, reopened even if replacing failed to keep appending to the old file
+        channel.close();
+        try {
+            Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("unable to close smartcron store " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static int recordSize(byte[] record) {
+        return HEADER_SIZE + record.length + CHECKSUM_SIZE;
+    }
+
+    private static long checksum(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+        return crc.getValue();
+    }
+
+    private static byte[] encode(SmartcronMetadata metadata) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(STATE);
+            writeString(out, metadata.getId());
+            writeString(out, metadata.getName());
+            out.writeBoolean(metadata.isActive());
+            out.writeLong(metadata.getScheduled() == null ? NO_DATE : metadata.getScheduled().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            writeStatistics(out, metadata.getStatistics());
+            out.writeInt(metadata.getStatisticsPerMode().size());
+            for (Map.Entry<String, SmartcronStatistics> entry : metadata.getStatisticsPerMode().entrySet()) {
+                writeString(out, entry.getKey());
+                writeStatistics(out, entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeStatistics(DataOutputStream out, SmartcronStatistics statistics) throws IOException {
+        out.writeLong(statistics.getErrors());
+        out.writeLong(statistics.getMisfires());
+        writeHistogram(out, statistics.getDurations());
+        writeHistogram(out, statistics.getLags());
+    }
+
+    private static void writeHistogram(DataOutputStream out, SmartcronHistogram histogram) throws IOException {
+        long[] counts = histogram.getCounts();
+        out.writeInt(counts.length);
+        out.writeLong(histogram.getMin());
+        out.writeLong(histogram.getMax());
+        out.writeLong(histogram.getTotal());
+        for (long count : counts) {
+            out.writeLong(count);
+        }
+    }
+
+    private static SmartcronMetadata decode(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        buffer.get();
+        String id = readString(buffer);
+        String name = readString(buffer);
+        boolean active = buffer.get() != 0;
+        long scheduled = buffer.getLong();
+        SmartcronStatistics statistics = readStatistics(buffer);
+        int modes = buffer.getInt();
+        Map<String, SmartcronStatistics> statisticsPerMode = new HashMap<>();
+        for (int i = 0; i < modes; i++) {
+            statisticsPerMode.put(readString(buffer), readStatistics(buffer));
+        }
+        return new SmartcronMetadata(id, name, 0L, active,
+                scheduled == NO_DATE ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(scheduled), ZoneId.systemDefault()), statistics, statisticsPerMode,
+                Collections.emptyList());
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static SmartcronStatistics readStatistics(ByteBuffer buffer) {
+        long errors = buffer.getLong();
+        long misfires = buffer.getLong();
+        SmartcronHistogram durations = readHistogram(buffer);
+        SmartcronHistogram lags = readHistogram(buffer);
+        return new SmartcronStatistics(durations.getCount(), errors, durations.getMean() / NANOS_PER_MILLI, durations, lags, misfires);
+    }
+
+    private static SmartcronHistogram readHistogram(ByteBuffer buffer) {
+        long[] counts = new long[buffer.getInt()];
+        long min = buffer.getLong();
+        long max = buffer.getLong();
+        long total = buffer.getLong();
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buffer.getLong();
+        }
+        return SmartcronHistogram.restore(counts, min, max, total);
+    }
+
+    @Override
+    public String toString() {
+        return "FileSmartcronStore [file=" + file + ", sync=" + sync + ", live=" + live.size() + "]";
+    }
+}
@@ -0,0 +1,44 @@
+package de.chrgroth.smartcron.persistence;
+
+import java.util.Collection;
+import java.util.Map;
+
+import de.chrgroth.smartcron.model.SmartcronMetadata;
+
+/**
+ * Durable storage of smartcron state, allowing {@link de.chrgroth.smartcron.Smartcrons} to restore next execution times and statistics after a
+ * restart. Stored state consists of id, name, active flag, next execution and statistics, execution history is not stored. Implementations must be thread
+ * safe, failures are reported as {@link java.io.UncheckedIOException}.
+ *
+ * @author Christian Groth
+ */
+public interface SmartcronStore {
+
+    /**
+     * Loads latest stored state of all smartcrons.
+     *
+     * @return stored state by smartcron id, never null
+     */
+    Map<String, SmartcronMetadata> load();
+
+    /**
+     * Stores state of given smartcrons, replacing previously stored state with the same id.
+     *
+     * @param metadata
+     *            state to be stored
+     */
+    void save(Collection<SmartcronMetadata> metadata);
+
+    /**
+     * Removes stored state of given smartcron.
+     *
+     * @param id
+     *            smartcron id
+     */
+    void remove(String id);
+
+    /**
+     * Releases all resources, the store can't be used afterwards.
+     */
+    void close();
+}
@@ -0,0 +1,88 @@
+package de.chrgroth.smartcron.scheduler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Default scheduler using a single timing thread dispatching all due tasks to a bounded pool of worker threads. Use {@link #virtualThreads()} to run
+ * each execution on a new virtual thread instead, which is suitable for smartcrons blocking on I/O.
+ *
+ * @author Christian Groth
+ */
+public class PooledSmartcronScheduler implements SmartcronScheduler {
+
+    /**
+     * Default number of worker threads.
+     */
+    public static final int DEFAULT_WORKERS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private final ScheduledThreadPoolExecutor timing;
+    private final ExecutorService workers;
+    private final SmartcronSchedulerLane lane;
+
+    public PooledSmartcronScheduler() {
+        this(DEFAULT_WORKERS);
+    }
+
+    public PooledSmartcronScheduler(int workers) {
+        this(SmartcronExecutors.newWorkerPool(workers));
+    }
+
+    /**
+     * Creates a new scheduler executing each task on a new virtual thread, while timing stays on a single platform thread. Requires a Java 21+
+     * runtime.
+     *
+     * @return new scheduler
+     * @throws IllegalStateException
+     *             if virtual threads are not supported by the current runtime
+     */
+    public static PooledSmartcronScheduler virtualThreads() {
+        return new PooledSmartcronScheduler(SmartcronExecutors.newVirtualThreadExecutor());
+    }
+
+    /**
+     * Creates a new scheduler executing all tasks using given executor. The executor will be shut down together with this scheduler.
+     *
+     * @param workers
+     *            executor used for task execution
+     */
+    public PooledSmartcronScheduler(ExecutorService workers) {
+        this.workers = workers;
+        timing = new ScheduledThreadPoolExecutor(1, new SmartcronThreadFactory("smartcron-scheduler"));
+        timing.setRemoveOnCancelPolicy(true);
+        lane = new PooledLane();
+    }
+
+    @Override
+    public SmartcronSchedulerLane createLane(String name) {
+        return lane;
+    }
+
+    @Override
+    public void shutdown() {
+        timing.shutdownNow();
+        workers.shutdown();
+    }
+
+    private final class PooledLane implements SmartcronSchedulerLane {
+
+        @Override
+        public void schedule(SmartcronTask task, long delay) {
+            ScheduledFuture<?> future = timing.schedule(() -> dispatch(task), Math.max(0L, delay), TimeUnit.MILLISECONDS);
+            task.bindCanceller(() -> future.cancel(false));
+        }
+
+        private void dispatch(SmartcronTask task) {
+            if (!task.isCancelled()) {
+                workers.execute(task);
+            }
+        }
+
+        @Override
+        public void close() {
+            // lane is shared, nothing to do here
+        }
+    }
+}
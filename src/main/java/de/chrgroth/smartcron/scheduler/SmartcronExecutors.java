@@ -0,0 +1,92 @@
+package de.chrgroth.smartcron.scheduler;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Factory methods for executors used by scheduler engines. Virtual threads are resolved reflectively, so they are available when running on a Java
+ * 21+ runtime while the library itself stays compatible to Java 8.
+ *
+ * @author Christian Groth
+ */
+public final class SmartcronExecutors {
+
+    private static final Method VIRTUAL_THREAD_EXECUTOR = resolveVirtualThreadExecutor();
+
+    private SmartcronExecutors() {
+
+    }
+
+    private static Method resolveVirtualThreadExecutor() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Tells whether the current runtime supports virtual threads.
+     *
+     * @return true if virtual threads are supported, false otherwise
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    /**
+     * Creates a new executor starting a new virtual thread for each task.
+     *
+     * @return new executor
+     * @throws IllegalStateException
+     *             if virtual threads are not supported by the current runtime
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+
+        // runtime guard
+        if (!isVirtualThreadsSupported()) {
+            throw new IllegalStateException("virtual threads require a Java 21+ runtime, running on " + System.getProperty("java.version"));
+        }
+
+        // create executor
+        try {
+            return (ExecutorService) VIRTUAL_THREAD_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("unable to create virtual thread executor: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates a new fixed size pool of daemon threads.
+     *
+     * @param workers
+     *            number of threads
+     * @return new executor
+     */
+    public static ExecutorService newWorkerPool(int workers) {
+        return Executors.newFixedThreadPool(workers, new SmartcronThreadFactory("smartcron-worker"));
+    }
+
+    /**
+     * Creates a new pool of daemon threads growing on demand, used to dispatch events.
+     *
+     * @return new executor
+     */
+    public static ExecutorService newDispatcherPool() {
+        return Executors.newCachedThreadPool(new SmartcronThreadFactory("smartcron-events"));
+    }
+
+    /**
+     * Creates a new single daemon thread executor for execution timeouts. Cancelled timeouts are removed immediately.
+     *
+     * @return new executor
+     */
+    public static ScheduledExecutorService newTimeoutExecutor() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new SmartcronThreadFactory("smartcron-timeouts"));
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+}
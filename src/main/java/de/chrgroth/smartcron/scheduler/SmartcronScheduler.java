@@ -0,0 +1,24 @@
+package de.chrgroth.smartcron.scheduler;
+
+/**
+ * Scheduler engine shared by all smartcrons of a {@link de.chrgroth.smartcron.Smartcrons} instance. Each smartcron handler gets its own
+ * {@link SmartcronSchedulerLane} used to schedule all of its executions.
+ *
+ * @author Christian Groth
+ */
+public interface SmartcronScheduler {
+
+    /**
+     * Creates a new lane for a single smartcron.
+     *
+     * @param name
+     *            smartcron name
+     * @return lane, never null
+     */
+    SmartcronSchedulerLane createLane(String name);
+
+    /**
+     * Stops the scheduler. Tasks not started yet will not be executed.
+     */
+    void shutdown();
+}
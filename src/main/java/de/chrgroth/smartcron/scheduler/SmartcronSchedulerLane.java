@@ -0,0 +1,24 @@
+package de.chrgroth.smartcron.scheduler;
+
+/**
+ * Scheduling lane of a single smartcron, created by {@link SmartcronScheduler#createLane(String)}.
+ *
+ * @author Christian Groth
+ */
+public interface SmartcronSchedulerLane {
+
+    /**
+     * Schedules given task for execution after given delay.
+     *
+     * @param task
+     *            task to be executed
+     * @param delay
+     *            delay in milliseconds, values below zero are treated as zero
+     */
+    void schedule(SmartcronTask task, long delay);
+
+    /**
+     * Releases all resources held by this lane. No more tasks may be scheduled afterwards.
+     */
+    void close();
+}
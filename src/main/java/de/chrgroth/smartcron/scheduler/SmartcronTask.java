@@ -0,0 +1,69 @@
+package de.chrgroth.smartcron.scheduler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base class for all tasks executed by a {@link SmartcronScheduler}. A task is executed at most once and may be cancelled as long as execution was not started.
+ *
+ * @author Christian Groth
+ */
+public abstract class SmartcronTask implements Runnable {
+
+    private static final int SCHEDULED = 0;
+    private static final int EXECUTED = 1;
+    private static final int CANCELLED = 2;
+
+    private final AtomicInteger state = new AtomicInteger(SCHEDULED);
+    private volatile Runnable canceller;
+
+    @Override
+    public final void run() {
+        if (state.compareAndSet(SCHEDULED, EXECUTED)) {
+            execute();
+        }
+    }
+
+    /**
+     * Executes the task, called at most once.
+     */
+    protected abstract void execute();
+
+    /**
+     * Cancels the task if it was not executed yet.
+     *
+     * @return true if task was cancelled, false if it was already executed or cancelled
+     */
+    public boolean cancel() {
+
+        // state guard
+        if (!state.compareAndSet(SCHEDULED, CANCELLED)) {
+            return false;
+        }
+
+        // release scheduler resources
+        Runnable currentCanceller = canceller;
+        if (currentCanceller != null) {
+            currentCanceller.run();
+        }
+
+        // done
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return state.get() == CANCELLED;
+    }
+
+    /**
+     * Binds scheduler specific cleanup to be invoked on cancellation. If the task was already cancelled the cleanup is invoked immediately.
+     *
+     * @param canceller
+     *            cleanup callback
+     */
+    void bindCanceller(Runnable canceller) {
+        this.canceller = canceller;
+        if (isCancelled()) {
+            canceller.run();
+        }
+    }
+}
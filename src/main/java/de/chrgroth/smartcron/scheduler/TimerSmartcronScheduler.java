@@ -0,0 +1,49 @@
+package de.chrgroth.smartcron.scheduler;
+
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * Legacy scheduler creating a dedicated {@link Timer}, and thus a dedicated thread, per smartcron.
+ *
+ * @author Christian Groth
+ */
+public class TimerSmartcronScheduler implements SmartcronScheduler {
+
+    @Override
+    public SmartcronSchedulerLane createLane(String name) {
+        return new TimerLane(new Timer(name, true));
+    }
+
+    @Override
+    public void shutdown() {
+        // each lane owns its timer, nothing to do here
+    }
+
+    private static final class TimerLane implements SmartcronSchedulerLane {
+
+        private final Timer timer;
+
+        private TimerLane(Timer timer) {
+            this.timer = timer;
+        }
+
+        @Override
+        public void schedule(SmartcronTask task, long delay) {
+            TimerTask timerTask = new TimerTask() {
+
+                @Override
+                public void run() {
+                    task.run();
+                }
+            };
+            timer.schedule(timerTask, Math.max(0L, delay));
+            task.bindCanceller(timerTask::cancel);
+        }
+
+        @Override
+        public void close() {
+            timer.cancel();
+        }
+    }
+}
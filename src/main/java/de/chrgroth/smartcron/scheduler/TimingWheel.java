@@ -0,0 +1,97 @@
+package de.chrgroth.smartcron.scheduler;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hierarchical hashed timing wheel. Each wheel covers <code>tick * size</code> milliseconds, entries expiring later are passed to a lazily created
+ * overflow wheel using the whole interval of this wheel as tick. Adding and removing entries is O(1), only non empty buckets are tracked in a delay
+ * queue. Wheels are not thread safe, all calls must be guarded by a single lock.
+ *
+ * @author Christian Groth
+ */
+class TimingWheel {
+
+    private final long tick;
+    private final int size;
+    private final long interval;
+    private final TimingWheelBucket[] buckets;
+    private final DelayQueue<TimingWheelBucket> queue;
+    private long currentTime;
+    private TimingWheel overflowWheel;
+
+    TimingWheel(long tick, int size, long startTime, DelayQueue<TimingWheelBucket> queue) {
+        this.tick = tick;
+        this.size = size;
+        this.queue = queue;
+        interval = tick * size;
+        buckets = new TimingWheelBucket[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new TimingWheelBucket();
+        }
+        currentTime = startTime - startTime % tick;
+    }
+
+    static long currentMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    /**
+     * Computes the expiration of an entry with given delay, rounded up to the tick of this wheel. Entries are never executed before their delay
+     * elapsed, buckets of overflow wheels expire early and pass their entries down to finer wheels.
+     *
+     * @param delay
+     *            delay in milliseconds
+     * @return expiration
+     */
+    long expiration(long delay) {
+        long expiration = currentMillis() + Math.max(0L, delay);
+        return (expiration + tick - 1) / tick * tick;
+    }
+
+    /**
+     * Adds given entry to the wheel.
+     *
+     * @param entry
+     *            entry to be added
+     * @return true if added, false if entry is already expired
+     */
+    boolean add(TimingWheelEntry entry) {
+        long expiration = entry.getExpiration();
+        if (expiration < currentTime + tick) {
+            return false;
+        }
+
+        // entry fits into this wheel
+        if (expiration < currentTime + interval) {
+            long virtualId = expiration / tick;
+            TimingWheelBucket bucket = buckets[(int) (virtualId % size)];
+            bucket.add(entry);
+            if (bucket.setExpiration(virtualId * tick)) {
+                queue.offer(bucket);
+            }
+            return true;
+        }
+
+        // delegate to overflow wheel
+        if (overflowWheel == null) {
+            overflowWheel = new TimingWheel(interval, size, currentTime, queue);
+        }
+        return overflowWheel.add(entry);
+    }
+
+    /**
+     * Advances the wheel and all overflow wheels to given time.
+     *
+     * @param time
+     *            current time
+     */
+    void advance(long time) {
+        if (time >= currentTime + tick) {
+            currentTime = time - time % tick;
+            if (overflowWheel != null) {
+                overflowWheel.advance(currentTime);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package de.chrgroth.smartcron.scheduler;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Slot of a {@link TimingWheel}, holding all entries expiring within the same tick as doubly linked list. All modifications must be guarded by the
+ * owning wheels lock.
+ *
+ * @author Christian Groth
+ */
+class TimingWheelBucket implements Delayed {
+
+    private final TimingWheelEntry root = new TimingWheelEntry(null, -1L);
+    private volatile long expiration = -1L;
+
+    TimingWheelBucket() {
+        root.setNext(root);
+        root.setPrevious(root);
+    }
+
+    void add(TimingWheelEntry entry) {
+        TimingWheelEntry tail = root.getPrevious();
+        entry.setNext(root);
+        entry.setPrevious(tail);
+        entry.setBucket(this);
+        tail.setNext(entry);
+        root.setPrevious(entry);
+    }
+
+    void remove(TimingWheelEntry entry) {
+        if (entry.getBucket() == this) {
+            entry.getNext().setPrevious(entry.getPrevious());
+            entry.getPrevious().setNext(entry.getNext());
+            entry.setNext(null);
+            entry.setPrevious(null);
+            entry.setBucket(null);
+        }
+    }
+
+    /**
+     * Removes all entries and passes them to given consumer. The bucket expiration is reset.
+     *
+     * @param consumer
+     *            entry consumer
+     */
+    void flush(Consumer<TimingWheelEntry> consumer) {
+        TimingWheelEntry head = root.getNext();
+        while (head != root) {
+            remove(head);
+            consumer.accept(head);
+            head = root.getNext();
+        }
+        expiration = -1L;
+    }
+
+    /**
+     * Sets the bucket expiration.
+     *
+     * @param expiration
+     *            new expiration
+     * @return true if the expiration was changed
+     */
+    boolean setExpiration(long expiration) {
+        if (this.expiration == expiration) {
+            return false;
+        }
+        this.expiration = expiration;
+        return true;
+    }
+
+    long getExpiration() {
+        return expiration;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(Math.max(expiration - TimingWheel.currentMillis(), 0L), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        return Long.compare(expiration, ((TimingWheelBucket) other).expiration);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+
+        // buckets are unique, ordering by expiration is used for delay queue only
+        return this == obj;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+}
@@ -0,0 +1,52 @@
+package de.chrgroth.smartcron.scheduler;
+
+/**
+ * Node of a {@link TimingWheelBucket} holding a single scheduled task.
+ *
+ * @author Christian Groth
+ */
+class TimingWheelEntry {
+
+    private final SmartcronTask task;
+    private final long expiration;
+    private TimingWheelBucket bucket;
+    private TimingWheelEntry previous;
+    private TimingWheelEntry next;
+
+    TimingWheelEntry(SmartcronTask task, long expiration) {
+        this.task = task;
+        this.expiration = expiration;
+    }
+
+    SmartcronTask getTask() {
+        return task;
+    }
+
+    long getExpiration() {
+        return expiration;
+    }
+
+    TimingWheelBucket getBucket() {
+        return bucket;
+    }
+
+    void setBucket(TimingWheelBucket bucket) {
+        this.bucket = bucket;
+    }
+
+    TimingWheelEntry getPrevious() {
+        return previous;
+    }
+
+    void setPrevious(TimingWheelEntry previous) {
+        this.previous = previous;
+    }
+
+    TimingWheelEntry getNext() {
+        return next;
+    }
+
+    void setNext(TimingWheelEntry next) {
+        this.next = next;
+    }
+}
@@ -0,0 +1,144 @@
+package de.chrgroth.smartcron.scheduler;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scheduler backed by a hierarchical timing wheel allowing to schedule and cancel tasks in constant time. Best suited for very large numbers of
+ * smartcrons using short delays. Execution times are rounded up to the configured tick resolution. All due tasks are dispatched to a bounded pool of
+ * worker threads.
+ *
+ * @author Christian Groth
+ */
+public class TimingWheelSmartcronScheduler implements SmartcronScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TimingWheelSmartcronScheduler.class);
+
+    /**
+     * Default tick resolution in milliseconds.
+     */
+    public static final long DEFAULT_TICK = 10L;
+
+    /**
+     * Default number of buckets per wheel.
+     */
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final Object lock = new Object();
+    private final DelayQueue<TimingWheelBucket> queue = new DelayQueue<>();
+    private final TimingWheel wheel;
+    private final ExecutorService workers;
+    private final Thread ticker;
+    private final SmartcronSchedulerLane lane;
+    private volatile boolean running = true;
+
+    public TimingWheelSmartcronScheduler() {
+        this(DEFAULT_TICK);
+    }
+
+    public TimingWheelSmartcronScheduler(long tick) {
+        this(tick, DEFAULT_WHEEL_SIZE);
+    }
+
+    public TimingWheelSmartcronScheduler(long tick, int wheelSize) {
+        this(tick, wheelSize, SmartcronExecutors.newWorkerPool(PooledSmartcronScheduler.DEFAULT_WORKERS));
+    }
+
+    /**
+     * Creates a new scheduler executing all tasks using given executor. The executor will be shut down together with this scheduler.
+     *
+     * @param tick
+     *            tick resolution in milliseconds
+     * @param wheelSize
+     *            number of buckets per wheel
+     * @param workers
+     *            executor used for task execution
+     */
+    public TimingWheelSmartcronScheduler(long tick, int wheelSize, ExecutorService workers) {
+
+        // validate
+        if (tick < 1) {
+            throw new IllegalArgumentException("tick must be >= 1!!");
+        }
+        if (wheelSize < 2) {
+            throw new IllegalArgumentException("wheel size must be >= 2!!");
+        }
+
+        // create wheel and ticker
+        this.workers = workers;
+        wheel = new TimingWheel(tick, wheelSize, TimingWheel.currentMillis(), queue);
+        lane = new TimingWheelLane();
+        ticker = new SmartcronThreadFactory("smartcron-timing-wheel").newThread(this::tick);
+        ticker.start();
+    }
+
+    @Override
+    public SmartcronSchedulerLane createLane(String name) {
+        return lane;
+    }
+
+    private void tick() {
+        while (running) {
+            try {
+                TimingWheelBucket bucket = queue.take();
+                synchronized (lock) {
+                    while (bucket != null) {
+                        wheel.advance(bucket.getExpiration());
+                        bucket.flush(this::addOrDispatch);
+                        bucket = queue.poll();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOG.error("timing wheel tick failed: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void addOrDispatch(TimingWheelEntry entry) {
+        if (entry.getTask().isCancelled()) {
+            return;
+        }
+        if (!wheel.add(entry)) {
+            workers.execute(entry.getTask());
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        running = false;
+        ticker.interrupt();
+        workers.shutdown();
+    }
+
+    private final class TimingWheelLane implements SmartcronSchedulerLane {
+
+        @Override
+        public void schedule(SmartcronTask task, long delay) {
+            TimingWheelEntry entry = new TimingWheelEntry(task, wheel.expiration(delay));
+            synchronized (lock) {
+                addOrDispatch(entry);
+            }
+            task.bindCanceller(() -> cancel(entry));
+        }
+
+        private void cancel(TimingWheelEntry entry) {
+            synchronized (lock) {
+                TimingWheelBucket bucket = entry.getBucket();
+                if (bucket != null) {
+                    bucket.remove(entry);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            // lane is shared, nothing to do here
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package de.chrgroth.smartcron;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SmartcronHashRingTest {
+
+    private static final int KEYS = 10000;
+
+    @Test
+    public void empty() {
+        Assert.assertNull(new SmartcronHashRing(Collections.emptySet()).owner("de.chrgroth.Smartcron"));
+    }
+
+    @Test
+    public void stable() {
+        SmartcronHashRing first = new SmartcronHashRing(Arrays.asList("node-1", "node-2", "node-3"));
+        SmartcronHashRing second = new SmartcronHashRing(Arrays.asList("node-3", "node-1", "node-2"));
+        for (int i = 0; i < KEYS; i++) {
+            Assert.assertEquals(first.owner("de.chrgroth.smartcron.Job" + i), second.owner("de.chrgroth.smartcron.Job" + i));
+        }
+    }
+
+    @Test
+    public void evenSpread() {
+        SmartcronHashRing ring = new SmartcronHashRing(Arrays.asList("node-1", "node-2", "node-3", "node-4"));
+        Map<String, Integer> shares = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            shares.merge(ring.owner("de.chrgroth.smartcron.Job" + i), 1, Integer::sum);
+        }
+
+        // each node must get roughly a quarter
+        Assert.assertEquals(4, shares.size());
+        for (int share : shares.values()) {
+            Assert.assertTrue("share " + share, share > 1900 && share < 3100);
+        }
+    }
+
+    @Test
+    public void minimalMovement() {
+        SmartcronHashRing before = new SmartcronHashRing(Arrays.asList("node-1", "node-2", "node-3"));
+        SmartcronHashRing after = new SmartcronHashRing(Arrays.asList("node-1", "node-2", "node-3", "node-4"));
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "de.chrgroth.smartcron.Job" + i;
+            String owner = after.owner(key);
+            if (!owner.equals(before.owner(key))) {
+
+                // keys only move to the joining node
+                Assert.assertEquals("node-4", owner);
+                moved++;
+            }
+        }
+        Assert.assertTrue("moved " + moved, moved > 1900 && moved < 3100);
+    }
+}
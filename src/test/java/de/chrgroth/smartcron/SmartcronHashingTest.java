@@ -0,0 +1,34 @@
+package de.chrgroth.smartcron;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SmartcronHashingTest {
+
+    @Test
+    public void stable() {
+        Assert.assertEquals(SmartcronHashing.hash("de.chrgroth.Smartcron"), SmartcronHashing.hash("de.chrgroth.Smartcron"));
+        Assert.assertNotEquals(SmartcronHashing.hash("de.chrgroth.Smartcron1"), SmartcronHashing.hash("de.chrgroth.Smartcron2"));
+    }
+
+    @Test
+    public void offsetWithinWindow() {
+        for (int i = 0; i < 1000; i++) {
+            long offset = SmartcronHashing.offset("smartcron-" + i, 60000L);
+            Assert.assertTrue(offset >= 0L && offset < 60000L);
+        }
+    }
+
+    @Test
+    public void evenSpread() {
+        int[] buckets = new int[10];
+        for (int i = 0; i < 10000; i++) {
+            buckets[(int) SmartcronHashing.offset("de.chrgroth.smartcron.Job" + i, buckets.length)]++;
+        }
+
+        // similar names must be spread evenly
+        for (int bucket : buckets) {
+            Assert.assertTrue(bucket > 850 && bucket < 1150);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package de.chrgroth.smartcron;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import de.chrgroth.smartcron.model.SmartcronExecution;
+
+@RunWith(Parameterized.class)
+public class SmartcronHistoryTest {
+
+    private final IntFunction<SmartcronHistory> factory;
+
+    public SmartcronHistoryTest(String name, IntFunction<SmartcronHistory> factory) {
+        this.factory = factory;
+    }
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> histories() {
+        return Arrays.asList(new Object[] { "ring buffer", (IntFunction<SmartcronHistory>) RingBufferHistory::new },
+                new Object[] { "columnar", (IntFunction<SmartcronHistory>) ColumnarHistory::new });
+    }
+
+    @Test
+    public void newestFirst() {
+        SmartcronHistory history = create(100);
+        for (int i = 0; i < 40; i++) {
+            history.add(execution(i), i + 1);
+        }
+
+        // check order
+        List<SmartcronExecution> executions = history.toList();
+        Assert.assertEquals(40, executions.size());
+        for (int i = 0; i < 40; i++) {
+            Assert.assertEquals(39 - i, executions.get(i).getDuration());
+        }
+    }
+
+    @Test
+    public void overflow() {
+        SmartcronHistory history = create(20);
+        for (int i = 0; i < 55; i++) {
+            history.add(execution(i), i + 1);
+        }
+
+        // check oldest entries dropped
+        List<SmartcronExecution> executions = history.toList();
+        Assert.assertEquals(20, executions.size());
+        Assert.assertEquals(54, executions.get(0).getDuration());
+        Assert.assertEquals(35, executions.get(19).getDuration());
+    }
+
+    @Test
+    public void noCapacity() {
+        SmartcronHistory history = create(0);
+        history.add(execution(1), 1);
+        Assert.assertEquals(0, history.size());
+        Assert.assertTrue(history.toList().isEmpty());
+    }
+
+    @Test
+    public void values() {
+        SmartcronHistory history = create(3);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        history.add(new SmartcronExecution(now, now.plusSeconds(1), 3L, 4L, 6L, "mode", 5000001L, "error", now.plusSeconds(2)), 1);
+        history.add(SmartcronExecution.createDeactivatedMarkerEntry(), 2);
+
+        // check all values retained
+        List<SmartcronExecution> executions = history.toList();
+        Assert.assertEquals(2, executions.size());
+        Assert.assertTrue(executions.get(0).isDeactivated());
+        SmartcronExecution execution = executions.get(1);
+        Assert.assertFalse(execution.isDeactivated());
+        Assert.assertEquals(now, execution.getScheduled());
+        Assert.assertEquals(now.plusSeconds(1), execution.getStarted());
+        Assert.assertEquals(3L, execution.getStartLag());
+        Assert.assertEquals(4L, execution.getQueueWait());
+        Assert.assertEquals(6L, execution.getSmoothingOffset());
+        Assert.assertEquals("mode", execution.getMode());
+        Assert.assertEquals(5L, execution.getDuration());
+        Assert.assertEquals(5000001L, execution.getDurationNanos());
+        Assert.assertEquals("error", execution.getError());
+        Assert.assertEquals(now.plusSeconds(2), execution.getNextExecution());
+    }
+
+    @Test
+    public void distinctErrors() {
+        SmartcronHistory history = create(5);
+        for (int i = 0; i < 100; i++) {
+            history.add(new SmartcronExecution(null, null, 0L, 0L, 0L, "mode", TimeUnit.MILLISECONDS.toNanos(i), "error " + i, null), i + 1);
+        }
+
+        // check latest errors retained
+        List<SmartcronExecution> executions = history.toList();
+        Assert.assertEquals(5, executions.size());
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals("error " + (99 - i), executions.get(i).getError());
+            Assert.assertEquals("mode", executions.get(i).getMode());
+        }
+    }
+
+    @Test
+    public void versionRange() {
+        SmartcronHistory history = create(10);
+        for (int i = 0; i < 15; i++) {
+            history.add(execution(i), (i + 1) * 2);
+        }
+        history.add(SmartcronExecution.createDeactivatedMarkerEntry(), 40);
+
+        // check only entries within version range
+        List<SmartcronExecution> executions = history.toList(24, 28);
+        Assert.assertEquals(2, executions.size());
+        Assert.assertEquals(13, executions.get(0).getDuration());
+        Assert.assertEquals(12, executions.get(1).getDuration());
+        Assert.assertEquals(1, history.toList(30, 40).size());
+        Assert.assertTrue(history.toList(40, 50).isEmpty());
+        Assert.assertEquals(10, history.toList(0, 50).size());
+    }
+
+    private SmartcronHistory create(int capacity) {
+        return factory.apply(capacity);
+    }
+
+    private SmartcronExecution execution(long duration) {
+        return new SmartcronExecution(null, null, 0L, 0L, 0L, null, TimeUnit.MILLISECONDS.toNanos(duration), null, null);
+    }
+}
@@ -0,0 +1,55 @@
+package de.chrgroth.smartcron;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SmartcronVersionsTest {
+
+    private static final int HANDLERS = 4;
+    private static final int CHANGES = 20000;
+
+    @Test
+    public void next() {
+        SmartcronVersions versions = new SmartcronVersions();
+        AtomicLong version = new AtomicLong();
+        Assert.assertEquals(1L, versions.next(version));
+        Assert.assertEquals(2L, versions.next(new AtomicLong()));
+        Assert.assertEquals(3L, versions.next(version));
+        Assert.assertEquals(3L, version.get());
+        Assert.assertEquals(3L, versions.published());
+    }
+
+    @Test
+    public void publishedNeverAheadOfHandlers() throws InterruptedException {
+        SmartcronVersions versions = new SmartcronVersions();
+        List<AtomicLong> handlerVersions = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < HANDLERS; i++) {
+            AtomicLong version = new AtomicLong();
+            handlerVersions.add(version);
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < CHANGES; j++) {
+                    versions.next(version);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        // latest published version must always be visible as handler version already
+        boolean running = true;
+        while (running) {
+            running = threads.stream().anyMatch(Thread::isAlive);
+            long published = versions.published();
+            long visible = handlerVersions.stream().mapToLong(AtomicLong::get).max().getAsLong();
+            Assert.assertTrue(published + " > " + visible, published <= visible);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals((long) HANDLERS * CHANGES, versions.published());
+    }
+}
@@ -1,30 +1,71 @@
 package de.chrgroth.smartcron;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.jayway.awaitility.Awaitility;
 import com.jayway.awaitility.Duration;
 import com.jayway.awaitility.core.ConditionFactory;
 
+import de.chrgroth.smartcron.api.AsyncSmartcron;
+import de.chrgroth.smartcron.api.CronSmartcron;
+import de.chrgroth.smartcron.api.FixedDelaySmartcron;
+import de.chrgroth.smartcron.api.FixedRateSmartcron;
 import de.chrgroth.smartcron.api.Smartcron;
 import de.chrgroth.smartcron.api.SmartcronExecutionContext;
+import de.chrgroth.smartcron.api.SmartcronGroup;
+import de.chrgroth.smartcron.api.SmartcronListener;
+import de.chrgroth.smartcron.api.SmartcronMisfirePolicy;
+import de.chrgroth.smartcron.coordination.InMemorySmartcronLeaseStore;
+import de.chrgroth.smartcron.coordination.InMemorySmartcronMembership;
+import de.chrgroth.smartcron.coordination.SmartcronCoordination;
 import de.chrgroth.smartcron.model.Counter;
+import de.chrgroth.smartcron.model.SmartcronEvent;
+import de.chrgroth.smartcron.model.SmartcronExecution;
+import de.chrgroth.smartcron.model.SmartcronHistogram;
 import de.chrgroth.smartcron.model.SmartcronMetadata;
+import de.chrgroth.smartcron.model.SmartcronMetadataChanges;
+import de.chrgroth.smartcron.model.SmartcronStatistics;
+import de.chrgroth.smartcron.persistence.FileSmartcronStore;
+import de.chrgroth.smartcron.persistence.SmartcronStore;
+import de.chrgroth.smartcron.scheduler.PooledSmartcronScheduler;
+import de.chrgroth.smartcron.scheduler.SmartcronExecutors;
+import de.chrgroth.smartcron.scheduler.TimerSmartcronScheduler;
 
 public class SmartcronsTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private Smartcrons smartcrons;
     private Counter counter;
 
@@ -36,29 +77,769 @@ public class SmartcronsTest {
         noPendingSmartcrons();
     }
 
-    @Test
-    public void scheduleNull() {
-        smartcrons.schedule(null);
+    @Test
+    public void scheduleNull() {
+        smartcrons.schedule(null);
+    }
+
+    @Test
+    public void scheduleException() {
+        smartcrons.schedule(context -> {
+            throw new IllegalStateException("expected test exception.");
+        });
+    }
+
+    @Test
+    public void scheduleRecoverable() {
+        counter = new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return null;
+            }
+        };
+
+        smartcrons.schedule(new Smartcron() {
+
+            @Override
+            public boolean abortOnException() {
+                return false;
+            }
+
+            @Override
+            public LocalDateTime recover() {
+                return delay(10, ChronoUnit.MILLIS);
+            }
+
+            @Override
+            public LocalDateTime run(SmartcronExecutionContext context) {
+                counter.counter++;
+                if (counter.counter == 1) {
+                    throw new IllegalStateException("expected test exception.");
+                }
+                return abort();
+            }
+        });
+        await().until(counterCalled(2, true));
+    }
+
+    @Test
+    public void nextExecutionNull() {
+
+        // check execution
+        counter = new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return null;
+            }
+        };
+        schedule();
+        await().until(counterCalled(1, true));
+    }
+
+    @Test
+    public void nextExecutionDelay() {
+
+        // check execution
+        counter = new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return delay(10, ChronoUnit.MILLIS);
+            }
+        };
+        schedule();
+        for (int i = 1; i < 6; i++) {
+            Assert.assertEquals(1, smartcrons.getMetadata().size());
+            await().until(counterCalled(i, false));
+        }
+
+        // stop executions explicitly
+        smartcrons.shutdown();
+    }
+
+    @Test
+    public void nextExecutionDelayOverflow() throws Exception {
+
+        // check single execution
+        counter = new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return delay(Long.MAX_VALUE, ChronoUnit.MILLIS);
+            }
+        };
+        schedule();
+        await().until(counterCalled(1, false));
+
+        // stop executions explicitly
+        smartcrons.shutdown();
+    }
+
+    @Test
+    public void nextExecutionPastDate() {
+
+        // check execution, past schedule date means direct execution
+        counter = new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return LocalDateTime.now().minus(10000, ChronoUnit.MILLIS);
+            }
+        };
+        schedule();
+        Assert.assertEquals(1, smartcrons.getMetadata().size());
+
+        // stop executions implicitly
+        smartcrons.shutdown();
+    }
+
+    @Test
+    public void activateNull() {
+        smartcrons.activate(null);
+    }
+
+    @Test
+    public void activateActive() {
+
+        // schedule
+        counter = new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return delay(5000, ChronoUnit.MILLIS);
+            }
+        };
+        schedule();
+        await().until(counterCalled(1, true));
+
+        // activating again must not trigger another execution
+        smartcrons.activate(counter.getClass());
+        sleep(100);
+        Assert.assertEquals(1, counter.counter);
+
+        // stop executions explicitly
+        smartcrons.shutdown();
+    }
+
+    @Test
+    public void deactivateNull() {
+        smartcrons.deactivate(null);
+    }
+
+    @Test
+    public void deactivateInactive() {
+
+        // schedule
+        counter = new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return abort();
+            }
+        };
+        schedule();
+        await().until(counterCalled(1, true));
+        await().until((Callable<Boolean>) () -> !smartcrons.getMetadata().iterator().next().isActive());
+
+        // deactivating inactive smartcron must not add marker to history
+        smartcrons.deactivate(counter.getClass());
+        Assert.assertEquals(1, smartcrons.getMetadata().iterator().next().getHistory().size());
+    }
+
+    @Test
+    public void deactivateWhileRunning() {
+
+        // schedule long running smartcron
+        counter = new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                sleep(200);
+                return delay(10, ChronoUnit.MILLIS);
+            }
+        };
+        schedule();
+        await().until(counterCalled(1, true));
+
+        // deactivate during execution, must not be rescheduled afterwards
+        smartcrons.deactivate(counter.getClass());
+        Assert.assertFalse(smartcrons.getMetadata().iterator().next().isActive());
+        sleep(400);
+        Assert.assertEquals(1, counter.counter);
+        SmartcronMetadata metadata = smartcrons.getMetadata().iterator().next();
+        Assert.assertFalse(metadata.isActive());
+        Assert.assertNull(metadata.getScheduled());
+        Assert.assertEquals(1, metadata.getStatistics().getCount());
+    }
+
+    @Test
+    public void metadataChanges() {
+
+        // schedule
+        counter = new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return counter >= 2 ? abort() : delay(10, ChronoUnit.MILLIS);
+            }
+        };
+        schedule();
+        await().until(counterCalled(2, true));
+        noPendingSmartcrons();
+
+        // unchanged smartcron reuses metadata
+        SmartcronMetadata metadata = smartcrons.getMetadata().iterator().next();
+        Assert.assertSame(metadata, smartcrons.getMetadata().iterator().next());
+        Assert.assertEquals(2, metadata.getHistory().size());
+
+        // all changes
+        SmartcronMetadataChanges changes = smartcrons.getMetadataChanges(0L);
+        Assert.assertEquals(1, changes.getMetadata().size());
+        Assert.assertEquals(2, changes.getMetadata().iterator().next().getHistory().size());
+        Assert.assertTrue(smartcrons.getMetadataChanges(changes.getVersion()).getMetadata().isEmpty());
+
+        // changes contain new history entries only
+        smartcrons.activate(counter.getClass());
+        await().until(counterCalled(3, true));
+        noPendingSmartcrons();
+        SmartcronMetadataChanges next = smartcrons.getMetadataChanges(changes.getVersion());
+        Assert.assertTrue(next.getVersion() > changes.getVersion());
+        Assert.assertEquals(1, next.getMetadata().size());
+        SmartcronMetadata changed = next.getMetadata().iterator().next();
+        Assert.assertEquals(1, changed.getHistory().size());
+        Assert.assertEquals(3, changed.getStatistics().getCount());
+        Assert.assertNotSame(metadata, smartcrons.getMetadata().iterator().next());
+    }
+
+    @Test
+    public void events() {
+        List<SmartcronEvent> events = new CopyOnWriteArrayList<>();
+        SmartcronSubscription subscription = smartcrons.subscribe(events::addAll);
+
+        // schedule
+        counter = new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return counter >= 2 ? abort() : delay(10, ChronoUnit.MILLIS);
+            }
+        };
+        schedule();
+        await().until(counterCalled(2, true));
+        noPendingSmartcrons();
+        smartcrons.purge();
+
+        // check events
+        await().until((Callable<Boolean>) () -> events.size() == 4);
+        Assert.assertEquals(SmartcronEvent.Type.ACTIVATED, events.get(0).getType());
+        Assert.assertEquals(SmartcronEvent.Type.EXECUTED, events.get(1).getType());
+        Assert.assertNotNull(events.get(1).getExecution());
+        Assert.assertEquals(SmartcronEvent.Type.EXECUTED, events.get(2).getType());
+        Assert.assertNull(events.get(2).getExecution().getNextExecution());
+        Assert.assertEquals(SmartcronEvent.Type.PURGED, events.get(3).getType());
+        Assert.assertEquals(counter.getClass().getName(), events.get(3).getName());
+        Assert.assertEquals(counter.getClass().getName(), events.get(3).getId());
+        Assert.assertEquals(4, subscription.getDelivered());
+        Assert.assertEquals(0, subscription.getDropped());
+
+        // cancelled subscription receives nothing
+        subscription.cancel();
+        schedule();
+        await().until(counterCalled(3, true));
+        noPendingSmartcrons();
+        sleep(50);
+        Assert.assertEquals(4, events.size());
+    }
+
+    @Test
+    public void eventsSlowListener() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        AtomicLong reportedDrops = new AtomicLong();
+        SmartcronSubscription subscription = smartcrons.subscribe(new SmartcronListener() {
+
+            @Override
+            public void onEvents(List<SmartcronEvent> events) {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void onDropped(long count) {
+                reportedDrops.addAndGet(count);
+            }
+        }, 2, 1);
+
+        // blocked listener must not delay executions
+        counter = new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return counter == 10 ? abort() : delay(1, ChronoUnit.MILLIS);
+            }
+        };
+        schedule();
+        await().until(counterCalled(10, true));
+        noPendingSmartcrons();
+
+        // check events dropped
+        Assert.assertTrue(subscription.getDropped() > 0);
+        blocked.countDown();
+        await().until((Callable<Boolean>) () -> subscription.getDelivered() + subscription.getDropped() == 11);
+        await().until((Callable<Boolean>) () -> reportedDrops.get() == subscription.getDropped());
+        subscription.cancel();
+    }
+
+    @Test
+    public void eventsFailingListener() {
+        SmartcronSubscription subscription = smartcrons.subscribe(events -> {
+            throw new IllegalStateException("expected test exception.");
+        });
+
+        // failed events are not counted as delivered
+        counter = new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return abort();
+            }
+        };
+        schedule();
+        await().until(counterCalled(1, true));
+        noPendingSmartcrons();
+        await().until((Callable<Boolean>) () -> subscription.getFailed() == 2);
+        Assert.assertEquals(0, subscription.getDelivered());
+        subscription.close();
+    }
+
+    @Test
+    public void groupDelay() {
+        SmartcronGroup group = new SmartcronGroup("delay", 2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        // schedule more smartcrons than permits
+        List<GroupedCounter> counters = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            GroupedCounter grouped = new GroupedCounter(group, running, maxRunning);
+            counters.add(grouped);
+            schedule(grouped);
+        }
+        for (GroupedCounter grouped : counters) {
+            await().until(counterCalled(grouped, 1, true));
+        }
+        noPendingSmartcrons();
+
+        // check concurrency and queue wait
+        Assert.assertEquals(2, maxRunning.get());
+        long waiting = smartcrons.getMetadata().stream().flatMap(m -> m.getHistory().stream()).filter(e -> e.getQueueWait() > TimeUnit.MILLISECONDS.toNanos(20))
+                .count();
+        Assert.assertTrue(waiting >= 3);
+    }
+
+    @Test
+    public void groupSkip() {
+        SmartcronGroup group = new SmartcronGroup("skip", 1, SmartcronGroup.Policy.SKIP, 10L);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        // schedule more smartcrons than permits
+        GroupedCounter first = new GroupedCounter(group, running, maxRunning);
+        GroupedCounter second = new GroupedCounter(group, running, maxRunning);
+        schedule(first);
+        schedule(second);
+        await().until(counterCalled(first, 1, true));
+        await().until(counterCalled(second, 1, true));
+        noPendingSmartcrons();
+
+        // skipped execution retried, never waiting
+        Assert.assertEquals(1, maxRunning.get());
+        smartcrons.getMetadata().stream().flatMap(m -> m.getHistory().stream()).forEach(e -> Assert.assertTrue(e.getQueueWait() < TimeUnit.MILLISECONDS.toNanos(20)));
+    }
+
+    @Test
+    public void groupDeactivateWaiting() {
+        SmartcronGroup group = new SmartcronGroup("deactivate", 1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        // second smartcron waits for permit
+        GroupedCounter first = new GroupedCounter(group, running, maxRunning);
+        counter = new Counter() {
+
+            @Override
+            public SmartcronGroup executionGroup() {
+                return group;
+            }
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return abort();
+            }
+        };
+        schedule(first);
+        await().until(() -> running.get() == 1);
+        schedule();
+
+        // deactivated waiting smartcron is never executed
+        smartcrons.deactivate(counter.getClass());
+        noPendingSmartcrons();
+        sleep(50);
+        Assert.assertEquals(0, counter.counter);
+
+        // group permit still available
+        smartcrons.activate(counter.getClass());
+        await().until(counterCalled(1, true));
+    }
+
+    @Test
+    public void misfireFireOnce() {
+
+        // schedule smartcron returning overdue execution once
+        counter = new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return counter == 1 ? LocalDateTime.now().minusSeconds(5) : abort();
+            }
+        };
+        schedule();
+        await().until(counterCalled(2, true));
+        noPendingSmartcrons();
+
+        // check misfire counted
+        SmartcronMetadata metadata = smartcrons.getMetadata().iterator().next();
+        Assert.assertEquals(1, metadata.getStatistics().getMisfires());
+        Assert.assertEquals(1, metadata.getStatisticsPerMode().get(SmartcronExecutionContext.MODE_DEFAULT).getMisfires());
+    }
+
+    @Test
+    public void misfireSkip() {
+
+        // schedule smartcron running longer than its interval
+        counter = new Counter() {
+
+            private LocalDateTime last;
+
+            @Override
+            public SmartcronMisfirePolicy misfirePolicy() {
+                return SmartcronMisfirePolicy.SKIP;
+            }
+
+            @Override
+            public long misfireThreshold() {
+                return 10L;
+            }
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                if (counter == 1) {
+                    last = LocalDateTime.now().plus(20, ChronoUnit.MILLIS);
+                    return last;
+                } else if (counter == 2) {
+                    sleep(100);
+                    return last.plus(20, ChronoUnit.MILLIS);
+                }
+                return abort();
+            }
+        };
+        schedule();
+        await().until(counterCalled(3, true));
+        noPendingSmartcrons();
+
+        // check next slot used
+        SmartcronMetadata metadata = smartcrons.getMetadata().iterator().next();
+        Assert.assertEquals(1, metadata.getStatistics().getMisfires());
+        SmartcronExecution second = metadata.getHistory().get(1);
+        SmartcronExecution third = metadata.getHistory().get(0);
+        long skipped = ChronoUnit.MILLIS.between(second.getScheduled(), third.getScheduled());
+        Assert.assertTrue(skipped > 20L);
+        Assert.assertEquals(0L, skipped % 20L);
+        Assert.assertTrue(third.getScheduled().isAfter(second.getStarted().plus(second.getDuration(), ChronoUnit.MILLIS)));
+    }
+
+    @Test
+    public void smoothing() {
+
+        // schedule smoothed smartcron
+        counter = new Counter() {
+
+            @Override
+            public long smoothingWindow() {
+                return 200L;
+            }
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return counter == 2 ? abort() : delay(10, ChronoUnit.MILLIS);
+            }
+        };
+        long offset = SmartcronHashing.offset(counter.getClass().getName(), 200L);
+        LocalDateTime scheduled = LocalDateTime.now();
+        schedule();
+        await().until(counterCalled(2, true));
+        noPendingSmartcrons();
+
+        // check offset shifts all executions
+        List<SmartcronExecution> history = smartcrons.getMetadata().iterator().next().getHistory();
+        Assert.assertEquals(2, history.size());
+        for (SmartcronExecution execution : history) {
+            Assert.assertEquals(offset, execution.getSmoothingOffset());
+            Assert.assertFalse(execution.getStarted().isBefore(execution.getScheduled().minus(5, ChronoUnit.MILLIS)));
+        }
+        Assert.assertFalse(history.get(1).getStarted().isBefore(scheduled.plus(offset, ChronoUnit.MILLIS)));
+    }
+
+    @Test
+    public void smoothingKeepsPeriod() {
+
+        // smoothing window larger than delay, offset of id is 147ms
+        RepeatingCounter repeating = new RepeatingCounter() {
+
+            @Override
+            public long smoothingWindow() {
+                return 200L;
+            }
+        };
+        String id = smartcrons.schedule(repeating, "smoothing-period");
+        await().until(counterCalled(repeating, 4, false));
+        smartcrons.deactivateById(id);
+
+        // offset applied once, executions follow each other by the returned delay
+        List<SmartcronExecution> history = smartcrons.getMetadataById(id).getHistory().stream().filter(execution -> !execution.isDeactivated())
+                .sorted((first, second) -> first.getStarted().compareTo(second.getStarted())).collect(Collectors.toList());
+        Assert.assertTrue(history.size() >= 4);
+        for (int i = 1; i < history.size(); i++) {
+            Assert.assertEquals(147L, history.get(i).getSmoothingOffset());
+            long period = ChronoUnit.MILLIS.between(history.get(i - 1).getStarted(), history.get(i).getStarted());
+            Assert.assertTrue("period " + period, period >= 15L && period < 100L);
+        }
+    }
+
+    @Test
+    public void persistence() {
+        Path file = folder.getRoot().toPath().resolve("smartcrons.store");
+
+        // first run
+        smartcrons.shutdown();
+        smartcrons = new Smartcrons(new PooledSmartcronScheduler(), new FileSmartcronStore(file));
+        HourlyCounter first = new HourlyCounter();
+        schedule(first);
+        await().until(counterCalled(first, 1, true));
+        LocalDateTime scheduled = smartcrons.getMetadata().iterator().next().getScheduled();
+        smartcrons.shutdown();
+
+        // restart restores next execution and statistics
+        smartcrons = new Smartcrons(new PooledSmartcronScheduler(), new FileSmartcronStore(file));
+        HourlyCounter second = new HourlyCounter();
+        schedule(second);
+        sleep(100);
+        Assert.assertEquals(0, second.counter);
+        SmartcronMetadata metadata = smartcrons.getMetadata().iterator().next();
+        Assert.assertTrue(metadata.isActive());
+        Assert.assertEquals(scheduled.truncatedTo(ChronoUnit.MILLIS), metadata.getScheduled());
+        Assert.assertEquals(1, metadata.getStatistics().getCount());
+        smartcrons.deactivate(HourlyCounter.class);
+    }
+
+    @Test
+    public void persistenceMisfire() {
+        Path file = folder.getRoot().toPath().resolve("smartcrons.store");
+
+        // stored next executions overdue after downtime
+        LocalDateTime overdue = LocalDateTime.now().minus(1, ChronoUnit.HOURS);
+        SmartcronStatistics statistics = new SmartcronStatistics(1L, 0L, 0.0d, SmartcronHistogram.empty(), SmartcronHistogram.empty(), 0L);
+        FileSmartcronStore store = new FileSmartcronStore(file);
+        store.save(Arrays.asList(new SmartcronMetadata("restored-1", HourlyCounter.class.getName(), 1L, true, overdue, statistics, new HashMap<>(),
+                Collections.emptyList()), new SmartcronMetadata("restored-2", HourlyCounter.class.getName(), 1L, true, overdue, statistics, new HashMap<>(),
+                        Collections.emptyList())));
+        store.close();
+
+        // restart handles overdue executions as misfire, spread by smoothing offset instead of executing all at once
+        smartcrons.shutdown();
+        smartcrons = new Smartcrons(new PooledSmartcronScheduler(), new FileSmartcronStore(file));
+        List<HourlyCounter> counters = new ArrayList<>();
+        LocalDateTime before = LocalDateTime.now();
+        for (String id : Arrays.asList("restored-1", "restored-2")) {
+            HourlyCounter counter = new HourlyCounter() {
+
+                @Override
+                public long smoothingWindow() {
+                    return 500L;
+                }
+            };
+            counters.add(counter);
+            smartcrons.schedule(counter, id);
+            LocalDateTime scheduled = smartcrons.getMetadataById(id).getScheduled();
+            Assert.assertFalse(scheduled.isBefore(before.plus(SmartcronHashing.offset(id, 500L), ChronoUnit.MILLIS)));
+        }
+        Assert.assertNotEquals(smartcrons.getMetadataById("restored-1").getScheduled(), smartcrons.getMetadataById("restored-2").getScheduled());
+        Assert.assertEquals(0, counters.get(0).counter + counters.get(1).counter);
+        for (HourlyCounter counter : counters) {
+            await().until(counterCalled(counter, 1, true));
+        }
+        smartcrons.deactivateAll(smartcron -> true);
+    }
+
+    @Test
+    public void persistenceRunning() throws InterruptedException {
+        MemoryStore store = new MemoryStore();
+
+        // flush repeatedly while executing
+        smartcrons.shutdown();
+        smartcrons = new Smartcrons(new PooledSmartcronScheduler(), store, 20L);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        HourlyCounter first = new HourlyCounter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.calc(context);
+            }
+        };
+        String id = smartcrons.schedule(first, "running");
+        Assert.assertTrue(started.await(1, TimeUnit.SECONDS));
+        LocalDateTime running = LocalDateTime.now();
+        store.saved.clear();
+        sleep(200);
+
+        // date of execution in progress is never saved, next execution is saved once rescheduled
+        Assert.assertTrue(store.saved.isEmpty());
+        release.countDown();
+        await().until(() -> store.saved.containsKey(id));
+        Assert.assertTrue(store.saved.get(id).getScheduled().isAfter(running.plus(59, ChronoUnit.MINUTES)));
+
+        // restart does not repeat finished execution
+        smartcrons.shutdown();
+        HourlyCounter second = new HourlyCounter();
+        smartcrons = new Smartcrons(new PooledSmartcronScheduler(), store, 20L);
+        smartcrons.schedule(second, id);
+        sleep(100);
+        Assert.assertEquals(0, second.counter);
+        Assert.assertTrue(smartcrons.getMetadataById(id).isActive());
+        smartcrons.deactivateById(id);
+    }
+
+    @Test
+    public void instanceIds() {
+
+        // schedule instances of same type
+        HourlyCounter first = new HourlyCounter();
+        HourlyCounter second = new HourlyCounter();
+        HourlyCounter tenant = new HourlyCounter();
+        String name = HourlyCounter.class.getName();
+        Assert.assertEquals(name, smartcrons.schedule(first));
+        Assert.assertEquals(name + "#2", smartcrons.schedule(second));
+        Assert.assertEquals("tenant-1", smartcrons.schedule(tenant, "tenant-1"));
+        try {
+            smartcrons.schedule(new HourlyCounter(), "tenant-1");
+            Assert.fail("duplicate id must be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        await().until(counterCalled(first, 1, true));
+        await().until(counterCalled(second, 1, true));
+        await().until(counterCalled(tenant, 1, true));
+
+        // control single instance
+        Assert.assertTrue(smartcrons.deactivateById("tenant-1"));
+        SmartcronMetadata metadata = smartcrons.getMetadataById("tenant-1");
+        Assert.assertEquals("tenant-1", metadata.getId());
+        Assert.assertEquals(name, metadata.getName());
+        Assert.assertFalse(metadata.isActive());
+        Assert.assertTrue(smartcrons.getMetadataById(name).isActive());
+
+        // move next execution of single instance
+        Assert.assertTrue(smartcrons.rescheduleById(name + "#2", LocalDateTime.now().plus(50, ChronoUnit.MILLIS)));
+        await().until(counterCalled(second, 2, true));
+        Assert.assertEquals(1, first.counter);
+        Assert.assertEquals(1, tenant.counter);
+
+        // unknown ids
+        Assert.assertNull(smartcrons.getMetadataById("unknown"));
+        Assert.assertFalse(smartcrons.activateById("unknown"));
+        Assert.assertFalse(smartcrons.rescheduleById("unknown", LocalDateTime.now()));
+        smartcrons.deactivate(HourlyCounter.class);
+    }
+
+    @Test
+    public void asyncExecution() {
+        ScheduledExecutorService io = Executors.newSingleThreadScheduledExecutor();
+        try {
+
+            // schedule async smartcrons on a single worker
+            smartcrons.shutdown();
+            smartcrons = new Smartcrons(new PooledSmartcronScheduler(1));
+            List<AsyncCounter> asyncCounters = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                AsyncCounter asyncCounter = new AsyncCounter(io, 200L, 0L);
+                asyncCounters.add(asyncCounter);
+                smartcrons.schedule(asyncCounter, "async-" + i);
+            }
+
+            // all executions run concurrently, the worker is released while waiting
+            for (AsyncCounter asyncCounter : asyncCounters) {
+                await().until(counterCalled(asyncCounter, 1, true));
+            }
+            noPendingSmartcrons();
+            List<SmartcronExecution> executions = smartcrons.getMetadata().stream().map(m -> m.getHistory().get(0)).collect(Collectors.toList());
+            LocalDateTime firstStarted = executions.stream().map(SmartcronExecution::getStarted).min(LocalDateTime::compareTo).get();
+            LocalDateTime lastStarted = executions.stream().map(SmartcronExecution::getStarted).max(LocalDateTime::compareTo).get();
+            Assert.assertTrue(lastStarted.isBefore(firstStarted.plus(150, ChronoUnit.MILLIS)));
+            for (SmartcronExecution execution : executions) {
+                Assert.assertNull(execution.getError());
+                Assert.assertTrue(execution.getDurationNanos() >= TimeUnit.MILLISECONDS.toNanos(190L));
+            }
+        } finally {
+            io.shutdownNow();
+        }
     }
 
     @Test
-    public void scheduleException() {
-        smartcrons.schedule(context -> {
-            throw new IllegalStateException("expected test exception.");
-        });
+    public void asyncTimeout() {
+        ScheduledExecutorService io = Executors.newSingleThreadScheduledExecutor();
+        try {
+
+            // stage never completes in time
+            AsyncCounter asyncCounter = new AsyncCounter(io, 10000L, 50L);
+            smartcrons.schedule(asyncCounter);
+            await().until(counterCalled(asyncCounter, 1, true));
+            noPendingSmartcrons();
+
+            // timeout recorded as error and recovered
+            SmartcronExecution execution = smartcrons.getMetadata().iterator().next().getHistory().get(0);
+            Assert.assertTrue(execution.getError().contains("timed out"));
+            Assert.assertEquals(1, asyncCounter.recovered);
+            Assert.assertTrue(asyncCounter.stage.isCancelled());
+        } finally {
+            io.shutdownNow();
+        }
     }
 
     @Test
-    public void scheduleRecoverable() {
+    public void timeout() {
+        AtomicInteger recovered = new AtomicInteger();
+        AtomicInteger interrupted = new AtomicInteger();
+
+        // first execution hangs until cancelled, second one must run on the same worker without pending interrupt
+        smartcrons.shutdown();
+        smartcrons = new Smartcrons(new PooledSmartcronScheduler(1));
         counter = new Counter() {
 
             @Override
-            protected LocalDateTime calc(SmartcronExecutionContext context) {
-                return null;
+            public long executionTimeout() {
+                return 50L;
             }
-        };
-
-        smartcrons.schedule(new Smartcron() {
 
             @Override
             public boolean abortOnException() {
@@ -67,106 +848,524 @@ public class SmartcronsTest {
 
             @Override
             public LocalDateTime recover() {
-                return delay(10, ChronoUnit.MILLIS);
+                recovered.incrementAndGet();
+                return LocalDateTime.now();
             }
 
             @Override
-            public LocalDateTime run(SmartcronExecutionContext context) {
-                counter.counter++;
-                if (counter.counter == 1) {
-                    throw new IllegalStateException("expected test exception.");
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                if (counter == 1) {
+                    try {
+                        Thread.sleep(10000L);
+                    } catch (InterruptedException e) {
+                        interrupted.incrementAndGet();
+                    }
+                    Assert.assertTrue(context.isCancelled());
+                    return delay(1, ChronoUnit.HOURS);
+                }
+                try {
+                    Thread.sleep(20L);
+                } catch (InterruptedException e) {
+                    interrupted.incrementAndGet();
                 }
                 return abort();
             }
-        });
+        };
+        schedule();
         await().until(counterCalled(2, true));
+        noPendingSmartcrons();
+
+        // timeout recorded and recovered, late result of timed out execution ignored
+        List<SmartcronExecution> history = smartcrons.getMetadata().iterator().next().getHistory();
+        Assert.assertEquals(2, history.size());
+        Assert.assertNull(history.get(0).getError());
+        Assert.assertTrue(history.get(1).getError().contains("timed out"));
+        Assert.assertTrue(history.get(1).getDurationNanos() < TimeUnit.SECONDS.toNanos(5L));
+        Assert.assertEquals(1, recovered.get());
+        Assert.assertEquals(1, interrupted.get());
     }
 
     @Test
-    public void nextExecutionNull() {
+    public void timeoutIgnored() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
 
-        // check execution
+        // first execution ignores cancellation, recovery must not start the next execution before it returned
+        smartcrons.shutdown();
+        smartcrons = new Smartcrons(new PooledSmartcronScheduler(2));
         counter = new Counter() {
 
             @Override
-            protected LocalDateTime calc(SmartcronExecutionContext context) {
-                return null;
+            public long executionTimeout() {
+                return 50L;
             }
-        };
-        schedule();
-        await().until(counterCalled(1, true));
-    }
 
-    @Test
-    public void nextExecutionDelay() {
+            @Override
+            public boolean abortOnException() {
+                return false;
+            }
 
-        // check execution
-        counter = new Counter() {
+            @Override
+            public LocalDateTime recover() {
+                return LocalDateTime.now();
+            }
 
             @Override
             protected LocalDateTime calc(SmartcronExecutionContext context) {
-                return delay(10, ChronoUnit.MILLIS);
+                if (running.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                long end = System.currentTimeMillis() + (counter == 1 ? 300L : 0L);
+                while (System.currentTimeMillis() < end) {
+                    try {
+                        Thread.sleep(10L);
+                    } catch (InterruptedException e) {
+                        // ignored on purpose
+                    }
+                }
+                running.decrementAndGet();
+                return abort();
             }
         };
         schedule();
-        for (int i = 1; i < 6; i++) {
-            Assert.assertEquals(1, smartcrons.getMetadata().size());
-            await().until(counterCalled(i, false));
+        await().until(counterCalled(2, true));
+        noPendingSmartcrons();
+
+        // timeout recorded once returned
+        List<SmartcronExecution> history = smartcrons.getMetadata().iterator().next().getHistory();
+        Assert.assertEquals(2, history.size());
+        Assert.assertTrue(history.get(1).getError().contains("timed out"));
+        Assert.assertTrue(history.get(1).getDurationNanos() >= TimeUnit.MILLISECONDS.toNanos(300L));
+        Assert.assertEquals(0, overlaps.get());
+    }
+
+    @Test
+    public void bulkOperations() {
+
+        // schedule all staggered
+        List<HourlyCounter> counters = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            counters.add(new HourlyCounter());
+        }
+        List<String> ids = smartcrons.scheduleAll(counters, 500L);
+        Assert.assertEquals(10, new HashSet<>(ids).size());
+        Assert.assertEquals(HourlyCounter.class.getName(), ids.get(0));
+        for (HourlyCounter hourlyCounter : counters) {
+            await().until(counterCalled(hourlyCounter, 1, true));
         }
+        List<LocalDateTime> started = smartcrons.getMetadata().stream().map(m -> m.getHistory().get(0).getStarted()).sorted().collect(Collectors.toList());
+        Assert.assertTrue(started.get(started.size() - 1).isAfter(started.get(0).plus(400, ChronoUnit.MILLIS)));
+
+        // deactivate and activate subset
+        Set<HourlyCounter> subset = new HashSet<>(counters.subList(0, 5));
+        Assert.assertEquals(5, smartcrons.deactivateAll(subset::contains));
+        Assert.assertEquals(0, smartcrons.deactivateAll(subset::contains));
+        Assert.assertEquals(5, smartcrons.activateAll(subset::contains, 0L));
+        for (HourlyCounter hourlyCounter : subset) {
+            await().until(counterCalled(hourlyCounter, 2, true));
+        }
+        Assert.assertEquals(1, counters.get(9).counter);
+
+        // purge subset
+        Assert.assertEquals(10, smartcrons.deactivateAll(smartcron -> true));
+        Assert.assertEquals(5, smartcrons.purge(subset::contains).size());
+        Assert.assertEquals(5, smartcrons.getMetadata().size());
+        smartcrons.purge();
+        Assert.assertTrue(smartcrons.getMetadata().isEmpty());
+    }
 
-        // stop executions explicitly
-        smartcrons.shutdown();
+    @Test
+    public void bulkOperationsSmoothed() {
+
+        // all handlers use initial delay, stagger offset and smoothing offset
+        List<DelayedCounter> counters = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            counters.add(new DelayedCounter() {
+
+                @Override
+                public long smoothingWindow() {
+                    return 100L;
+                }
+            });
+        }
+        LocalDateTime before = LocalDateTime.now();
+        List<String> ids = smartcrons.scheduleAll(counters, 200L);
+        LocalDateTime after = LocalDateTime.now();
+        for (int i = 0; i < ids.size(); i++) {
+            long delay = 300L + 50L * i + SmartcronHashing.offset(ids.get(i), 100L);
+            LocalDateTime scheduled = smartcrons.getMetadataById(ids.get(i)).getScheduled();
+            Assert.assertFalse(scheduled.isBefore(before.plus(delay, ChronoUnit.MILLIS)));
+            Assert.assertFalse(scheduled.isAfter(after.plus(delay, ChronoUnit.MILLIS)));
+        }
+        smartcrons.deactivateAll(smartcron -> true);
     }
 
     @Test
-    public void nextExecutionDelayOverflow() throws Exception {
+    public void initialExecution() {
 
-        // check single execution
-        counter = new Counter() {
+        // delayed using schedule
+        HourlyCounter delayed = new HourlyCounter();
+        LocalDateTime before = LocalDateTime.now();
+        String id = smartcrons.schedule(delayed, 300L);
+        Assert.assertFalse(smartcrons.getMetadataById(id).getScheduled().isBefore(before.plus(300, ChronoUnit.MILLIS)));
+        Assert.assertEquals(0, delayed.counter);
+        await().until(counterCalled(delayed, 1, true));
+
+        // delayed using schedule keeps smoothing offset
+        HourlyCounter smoothed = new HourlyCounter() {
 
             @Override
-            protected LocalDateTime calc(SmartcronExecutionContext context) {
-                return delay(Long.MAX_VALUE, ChronoUnit.MILLIS);
+            public long smoothingWindow() {
+                return 100L;
             }
         };
-        schedule();
-        await().until(counterCalled(1, false));
+        before = LocalDateTime.now();
+        String smoothedId = smartcrons.schedule(smoothed, 300L);
+        long offset = SmartcronHashing.offset(smoothedId, 100L);
+        Assert.assertFalse(smartcrons.getMetadataById(smoothedId).getScheduled().isBefore(before.plus(300 + offset, ChronoUnit.MILLIS)));
+
+        // absolute first execution
+        HourlyCounter absolute = new HourlyCounter();
+        LocalDateTime firstExecution = LocalDateTime.now().plus(1, ChronoUnit.HOURS);
+        smartcrons.scheduleAt(absolute, "absolute", firstExecution);
+        Assert.assertEquals(firstExecution, smartcrons.getMetadataById("absolute").getScheduled());
+        Assert.assertEquals(0, absolute.counter);
+
+        // delayed by smartcron
+        DelayedCounter declared = new DelayedCounter();
+        before = LocalDateTime.now();
+        smartcrons.schedule(declared);
+        Assert.assertFalse(smartcrons.getMetadataById(DelayedCounter.class.getName()).getScheduled().isBefore(before.plus(300, ChronoUnit.MILLIS)));
+        Assert.assertEquals(0, declared.counter);
+        await().until(counterCalled(declared, 1, true));
+        smartcrons.deactivateAll(smartcron -> true);
+    }
 
-        // stop executions explicitly
-        smartcrons.shutdown();
+    @Test(expected = IllegalArgumentException.class)
+    public void initialExecutionNegativeDelay() {
+        smartcrons.schedule(new HourlyCounter(), -1L);
     }
 
     @Test
-    public void nextExecutionPastDate() {
+    public void fixedRate() {
+
+        // execute slower than scheduling overhead
+        RateCounter rateCounter = new RateCounter();
+        String id = smartcrons.schedule(rateCounter);
+        await().until(() -> rateCounter.counter.get() >= 4);
+        smartcrons.deactivateById(id);
+
+        // next executions are planned exactly one period after previous ones
+        List<SmartcronExecution> history = smartcrons.getMetadataById(id).getHistory().stream().filter(execution -> !execution.isDeactivated())
+                .sorted((first, second) -> first.getStarted().compareTo(second.getStarted())).collect(Collectors.toList());
+        Assert.assertTrue(history.size() >= 3);
+        for (int i = 1; i < history.size(); i++) {
+            Assert.assertEquals(history.get(i - 1).getNextExecution(), history.get(i).getScheduled());
+            Assert.assertEquals(history.get(i).getScheduled().plus(100, ChronoUnit.MILLIS), history.get(i).getNextExecution());
+        }
+    }
 
-        // check execution, past schedule date means direct execution
-        counter = new Counter() {
+    @Test
+    public void fixedDelay() {
+
+        // execute longer than scheduling overhead
+        DelayCounter delayCounter = new DelayCounter();
+        String id = smartcrons.schedule(delayCounter);
+        await().until(() -> delayCounter.counter.get() >= 4);
+        smartcrons.deactivateById(id);
+
+        // next executions are planned one delay after previous ones finished
+        List<SmartcronExecution> history = smartcrons.getMetadataById(id).getHistory().stream().filter(execution -> !execution.isDeactivated())
+                .sorted((first, second) -> first.getStarted().compareTo(second.getStarted())).collect(Collectors.toList());
+        Assert.assertTrue(history.size() >= 3);
+        for (int i = 1; i < history.size(); i++) {
+            Assert.assertEquals(history.get(i - 1).getNextExecution(), history.get(i).getScheduled());
+            Assert.assertFalse(history.get(i).getScheduled().isBefore(history.get(i - 1).getStarted().plus(80, ChronoUnit.MILLIS)));
+            Assert.assertFalse(history.get(i).getStarted().isBefore(history.get(i - 1).getStarted().plus(80, ChronoUnit.MILLIS)));
+        }
+    }
 
-            @Override
-            protected LocalDateTime calc(SmartcronExecutionContext context) {
-                return LocalDateTime.now().minus(10000, ChronoUnit.MILLIS);
-            }
-        };
-        schedule();
-        Assert.assertEquals(1, smartcrons.getMetadata().size());
+    @Test
+    public void cron() {
+
+        // first execution at next full second, the relative initial delay may add a few milliseconds
+        CronCounter cronCounter = new CronCounter();
+        LocalDateTime before = LocalDateTime.now();
+        String id = smartcrons.schedule(cronCounter);
+        LocalDateTime scheduled = smartcrons.getMetadataById(id).getScheduled();
+        Assert.assertTrue(scheduled.isAfter(before));
+        Assert.assertFalse(scheduled.isAfter(LocalDateTime.now().withNano(0).plus(1100, ChronoUnit.MILLIS)));
+        await().atMost(Duration.TWO_SECONDS).until(() -> cronCounter.counter.get() >= 1);
+
+        // next execution at following full second
+        await().until(() -> !smartcrons.getMetadataById(id).getHistory().isEmpty());
+        SmartcronExecution execution = smartcrons.getMetadataById(id).getHistory().get(smartcrons.getMetadataById(id).getHistory().size() - 1);
+        Assert.assertEquals(0, execution.getNextExecution().getNano());
+        Assert.assertEquals(execution.getScheduled().withNano(0).plus(1, ChronoUnit.SECONDS), execution.getNextExecution());
+        smartcrons.deactivateById(id);
+    }
 
-        // stop executions implicitly
+    @Test
+    public void coordination() {
+        InMemorySmartcronLeaseStore leases = new InMemorySmartcronLeaseStore();
+
+        // first node acquires the lease
         smartcrons.shutdown();
+        smartcrons = new Smartcrons(new PooledSmartcronScheduler(), null, Smartcrons.DEFAULT_PERSIST_INTERVAL, new SmartcronCoordination(leases, "node-1", 300L));
+        Smartcrons secondNode = new Smartcrons(new PooledSmartcronScheduler(), null, Smartcrons.DEFAULT_PERSIST_INTERVAL,
+                new SmartcronCoordination(leases, "node-2", 300L));
+        try {
+            RepeatingCounter first = new RepeatingCounter();
+            RepeatingCounter second = new RepeatingCounter();
+            schedule(first);
+            await().until(counterCalled(first, 1, false));
+            secondNode.schedule(second);
+
+            // only the lease holder executes, even after the lease duration due to renewal
+            sleep(500);
+            Assert.assertTrue(first.counter > 1);
+            Assert.assertEquals(0, second.counter);
+
+            // second node takes over after shutdown of first node
+            smartcrons.shutdown();
+            await().until(counterCalled(second, 1, false));
+        } finally {
+            secondNode.shutdown();
+        }
     }
 
     @Test
-    public void activateNull() {
-        smartcrons.activate(null);
+    public void sharding() {
+        InMemorySmartcronMembership membership = new InMemorySmartcronMembership();
+
+        // both nodes schedule the same smartcron
+        smartcrons.shutdown();
+        smartcrons = new Smartcrons(new PooledSmartcronScheduler(), null, Smartcrons.DEFAULT_PERSIST_INTERVAL,
+                new SmartcronCoordination(null, membership, "node-1", 300L));
+        Smartcrons secondNode = new Smartcrons(new PooledSmartcronScheduler(), null, Smartcrons.DEFAULT_PERSIST_INTERVAL,
+                new SmartcronCoordination(null, membership, "node-2", 300L));
+        try {
+            RepeatingCounter first = new RepeatingCounter();
+            RepeatingCounter second = new RepeatingCounter();
+            schedule(first);
+            secondNode.schedule(second);
+
+            // only the owning node executes once membership settled
+            sleep(300);
+            int firstCount = first.counter;
+            int secondCount = second.counter;
+            sleep(300);
+            Assert.assertTrue(first.counter > firstCount ^ second.counter > secondCount);
+
+            // other node is parked instead of retrying
+            boolean firstOwns = first.counter > firstCount;
+            Smartcrons parkedNode = firstOwns ? secondNode : smartcrons;
+            String id = RepeatingCounter.class.getName();
+            LocalDateTime parked = parkedNode.getMetadataById(id).getScheduled();
+            sleep(300);
+            Assert.assertEquals(parked, parkedNode.getMetadataById(id).getScheduled());
+            Assert.assertTrue(parkedNode.getMetadataById(id).isActive());
+
+            // remaining node takes over after owner left
+            RepeatingCounter remaining = firstOwns ? second : first;
+            int remainingCount = remaining.counter;
+            if (firstOwns) {
+                smartcrons.shutdown();
+            } else {
+                secondNode.shutdown();
+            }
+            Assert.assertEquals(Collections.singleton(firstOwns ? "node-2" : "node-1"), membership.getMembers());
+            await().until(counterCalled(remaining, remainingCount + 1, false));
+        } finally {
+            smartcrons.shutdown();
+            secondNode.shutdown();
+        }
     }
 
-    // TODO activate active
+    private static class AsyncCounter extends Counter implements AsyncSmartcron {
 
-    @Test
-    public void deactivateNull() {
-        smartcrons.deactivate(null);
+        private final ScheduledExecutorService io;
+        private final long latency;
+        private final long timeout;
+        private volatile CompletableFuture<LocalDateTime> stage;
+        private volatile int recovered;
+
+        AsyncCounter(ScheduledExecutorService io, long latency, long timeout) {
+            this.io = io;
+            this.latency = latency;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public CompletionStage<LocalDateTime> runAsync(SmartcronExecutionContext context) {
+            CompletableFuture<LocalDateTime> result = new CompletableFuture<>();
+            stage = result;
+            io.schedule(() -> {
+                counter++;
+                result.complete(abort());
+            }, latency, TimeUnit.MILLISECONDS);
+            return result;
+        }
+
+        @Override
+        public LocalDateTime run(SmartcronExecutionContext context) {
+            return AsyncSmartcron.super.run(context);
+        }
+
+        @Override
+        public long executionTimeout() {
+            return timeout;
+        }
+
+        @Override
+        public boolean abortOnException() {
+            return false;
+        }
+
+        @Override
+        public LocalDateTime recover() {
+            recovered++;
+            counter++;
+            return abort();
+        }
+
+        @Override
+        protected LocalDateTime calc(SmartcronExecutionContext context) {
+            return abort();
+        }
+    }
+
+    private static class RepeatingCounter extends Counter {
+
+        @Override
+        protected LocalDateTime calc(SmartcronExecutionContext context) {
+            return delay(20, ChronoUnit.MILLIS);
+        }
+    }
+
+    private static class MemoryStore implements SmartcronStore {
+
+        private final Map<String, SmartcronMetadata> saved = new ConcurrentHashMap<>();
+
+        @Override
+        public Map<String, SmartcronMetadata> load() {
+            return new HashMap<>(saved);
+        }
+
+        @Override
+        public void save(Collection<SmartcronMetadata> metadata) {
+            metadata.forEach(m -> saved.put(m.getId(), m));
+        }
+
+        @Override
+        public void remove(String id) {
+            saved.remove(id);
+        }
+
+        @Override
+        public void close() {
+            // nothing to release
+        }
+    }
+
+    private static class HourlyCounter extends Counter {
+
+        @Override
+        protected LocalDateTime calc(SmartcronExecutionContext context) {
+            return delay(1, ChronoUnit.HOURS);
+        }
+    }
+
+    private static class RateCounter extends FixedRateSmartcron {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        RateCounter() {
+            super(100L, ChronoUnit.MILLIS);
+        }
+
+        @Override
+        protected void execute(SmartcronExecutionContext context) {
+            counter.incrementAndGet();
+            try {
+                Thread.sleep(20L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class DelayCounter extends FixedDelaySmartcron {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        DelayCounter() {
+            super(50L, ChronoUnit.MILLIS);
+        }
+
+        @Override
+        protected void execute(SmartcronExecutionContext context) {
+            counter.incrementAndGet();
+            try {
+                Thread.sleep(30L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class CronCounter extends CronSmartcron {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        CronCounter() {
+            super("* * * * * *");
+        }
+
+        @Override
+        protected void execute(SmartcronExecutionContext context) {
+            counter.incrementAndGet();
+        }
+    }
+
+    private static class DelayedCounter extends HourlyCounter {
+
+        @Override
+        public long initialDelay() {
+            return 300L;
+        }
     }
 
-    // TODO deactivate inactive
+    private static class GroupedCounter extends Counter {
+
+        private final SmartcronGroup group;
+        private final AtomicInteger running;
+        private final AtomicInteger maxRunning;
+
+        GroupedCounter(SmartcronGroup group, AtomicInteger running, AtomicInteger maxRunning) {
+            this.group = group;
+            this.running = running;
+            this.maxRunning = maxRunning;
+        }
+
+        @Override
+        public SmartcronGroup executionGroup() {
+            return group;
+        }
+
+        @Override
+        protected LocalDateTime calc(SmartcronExecutionContext context) {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            return abort();
+        }
+    }
 
     @Test
     public void smartcronLifecycle() {
@@ -229,6 +1428,43 @@ public class SmartcronsTest {
         Assert.assertEquals(1, purged.size());
     }
 
+    @Test
+    public void lifecyclePerType() {
+
+        // schedule two types
+        counter = new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return delay(5000, ChronoUnit.MILLIS);
+            }
+        };
+        Counter secondCounter = new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return delay(5000, ChronoUnit.MILLIS);
+            }
+        };
+        schedule();
+        schedule(secondCounter);
+        await().until(counterCalled(1, true));
+        await().until(counterCalled(secondCounter, 1, true));
+
+        // deactivate first type only
+        smartcrons.deactivate(counter.getClass());
+        Assert.assertFalse(smartcrons.getMetadata(counter.getClass()).iterator().next().isActive());
+        Assert.assertTrue(smartcrons.getMetadata(secondCounter.getClass()).iterator().next().isActive());
+
+        // purge removes first type only
+        Assert.assertEquals(1, smartcrons.purge().size());
+        Assert.assertTrue(smartcrons.getMetadata(counter.getClass()).isEmpty());
+        Assert.assertEquals(1, smartcrons.getMetadata().size());
+
+        // stop executions explicitly
+        smartcrons.shutdown();
+    }
+
     @Test
     public void metadataUpdatedPerIteration() {
         List<SmartcronMetadata> metadataInstances = new ArrayList<>();
@@ -410,6 +1646,11 @@ public class SmartcronsTest {
         Assert.assertEquals(2, smartcronMetadata.getStatistics().getCount());
         Assert.assertEquals(1, smartcronMetadata.getStatisticsPerMode().get("1").getCount());
         Assert.assertEquals(1, smartcronMetadata.getStatisticsPerMode().get("2").getCount());
+        Assert.assertEquals(2, smartcronMetadata.getStatistics().getDurations().getCount());
+        Assert.assertEquals(2, smartcronMetadata.getStatistics().getLags().getCount());
+        Assert.assertEquals(1, smartcronMetadata.getStatisticsPerMode().get("2").getLags().getCount());
+        Assert.assertTrue(smartcronMetadata.getHistory().get(0).getDurationNanos() > 0);
+        Assert.assertTrue(smartcronMetadata.getHistory().get(0).getStartLag() >= 0);
 
         // shutdown
         smartcrons.shutdown();
@@ -449,6 +1690,60 @@ public class SmartcronsTest {
         smartcrons.shutdown();
     }
 
+    @Test
+    public void legacyTimerScheduler() {
+
+        // replace default scheduler
+        smartcrons.shutdown();
+        smartcrons = new Smartcrons(new TimerSmartcronScheduler());
+
+        // schedule
+        counter = new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return counter == 3 ? abort() : delay(10, ChronoUnit.MILLIS);
+            }
+        };
+        schedule();
+        await().until(counterCalled(3, true));
+
+        // shutdown
+        smartcrons.shutdown();
+    }
+
+    @Test
+    public void virtualThreadScheduler() {
+
+        // not supported before java 21
+        if (!SmartcronExecutors.isVirtualThreadsSupported()) {
+            try {
+                PooledSmartcronScheduler.virtualThreads();
+                Assert.fail("virtual threads must not be available");
+            } catch (IllegalStateException e) {
+                return;
+            }
+        }
+
+        // replace default scheduler
+        smartcrons.shutdown();
+        smartcrons = new Smartcrons(PooledSmartcronScheduler.virtualThreads());
+
+        // schedule
+        counter = new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return counter == 3 ? abort() : delay(10, ChronoUnit.MILLIS);
+            }
+        };
+        schedule();
+        await().until(counterCalled(3, true));
+
+        // shutdown
+        smartcrons.shutdown();
+    }
+
     private void schedule() {
         schedule(counter);
     }
@@ -0,0 +1,75 @@
+package de.chrgroth.smartcron.api;
+
+import java.time.LocalDateTime;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SmartcronExpressionTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 31, 23, 59, 30, 500);
+
+    @Test
+    public void everySecond() {
+        Assert.assertEquals(LocalDateTime.of(2024, 1, 31, 23, 59, 31), SmartcronExpression.parse("* * * * * *").next(NOW));
+    }
+
+    @Test
+    public void standardForm() {
+        Assert.assertEquals(LocalDateTime.of(2024, 2, 1, 0, 0), SmartcronExpression.parse("* * * * *").next(NOW));
+        Assert.assertEquals(LocalDateTime.of(2024, 2, 1, 0, 15), SmartcronExpression.parse("15 * * * *").next(NOW));
+    }
+
+    @Test
+    public void steps() {
+        SmartcronExpression expression = SmartcronExpression.parse("0 0/15 8-18 ? * *");
+        Assert.assertEquals(LocalDateTime.of(2024, 2, 1, 8, 0), expression.next(NOW));
+        Assert.assertEquals(LocalDateTime.of(2024, 2, 1, 8, 15), expression.next(LocalDateTime.of(2024, 2, 1, 8, 0)));
+        Assert.assertEquals(LocalDateTime.of(2024, 2, 2, 8, 0), expression.next(LocalDateTime.of(2024, 2, 1, 18, 45)));
+    }
+
+    @Test
+    public void daysOfWeek() {
+
+        // 2024-02-01 is a thursday
+        Assert.assertEquals(LocalDateTime.of(2024, 2, 2, 9, 0), SmartcronExpression.parse("0 9 * * MON-FRI").next(NOW.plusDays(1)));
+        Assert.assertEquals(LocalDateTime.of(2024, 2, 5, 9, 0), SmartcronExpression.parse("0 9 * * mon").next(NOW));
+        Assert.assertEquals(LocalDateTime.of(2024, 2, 4, 9, 0), SmartcronExpression.parse("0 9 * * 7").next(NOW));
+        Assert.assertEquals(LocalDateTime.of(2024, 2, 4, 9, 0), SmartcronExpression.parse("0 9 * * 0").next(NOW));
+    }
+
+    @Test
+    public void daysOfMonthOrWeek() {
+
+        // 13th or any friday
+        SmartcronExpression expression = SmartcronExpression.parse("0 0 13 * FRI");
+        Assert.assertEquals(LocalDateTime.of(2024, 2, 2, 0, 0), expression.next(NOW));
+        Assert.assertEquals(LocalDateTime.of(2024, 2, 13, 0, 0), expression.next(LocalDateTime.of(2024, 2, 9, 0, 0)));
+    }
+
+    @Test
+    public void monthsAndLeapYears() {
+        Assert.assertEquals(LocalDateTime.of(2024, 2, 29, 12, 0), SmartcronExpression.parse("0 12 29 FEB *").next(NOW));
+        Assert.assertEquals(LocalDateTime.of(2028, 2, 29, 12, 0), SmartcronExpression.parse("0 12 29 2 *").next(LocalDateTime.of(2024, 3, 1, 0, 0)));
+        Assert.assertEquals(LocalDateTime.of(2024, 3, 31, 0, 0), SmartcronExpression.parse("0 0 31 * *").next(NOW));
+        Assert.assertEquals(LocalDateTime.of(2025, 1, 1, 0, 0), SmartcronExpression.parse("0 0 1 JAN *").next(NOW));
+    }
+
+    @Test
+    public void neverFires() {
+        Assert.assertNull(SmartcronExpression.parse("0 0 30 2 *").next(NOW));
+    }
+
+    @Test
+    public void invalid() {
+        for (String expression : new String[] { "* * * *", "60 * * * *", "* 24 * * *", "* * 0 * *", "* * * 13 *", "* * * * 8", "5-1 * * * *", "*/0 * * * *",
+                "? * * * *", "x * * * *" }) {
+            try {
+                SmartcronExpression.parse(expression);
+                Assert.fail("expected invalid expression: " + expression);
+            } catch (IllegalArgumentException e) {
+                Assert.assertTrue(e.getMessage().contains(expression));
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package de.chrgroth.smartcron.coordination;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SmartcronLeaseStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void inMemory() throws InterruptedException {
+        verify(new InMemorySmartcronLeaseStore());
+    }
+
+    @Test
+    public void file() throws InterruptedException {
+        verify(new FileSmartcronLeaseStore(folder.getRoot().toPath()));
+    }
+
+    @Test
+    public void fileShared() {
+        FileSmartcronLeaseStore first = new FileSmartcronLeaseStore(folder.getRoot().toPath());
+        FileSmartcronLeaseStore second = new FileSmartcronLeaseStore(folder.getRoot().toPath());
+        Assert.assertTrue(first.tryAcquire("a.b.C$1", "node-1", 10000L));
+        Assert.assertFalse(second.tryAcquire("a.b.C$1", "node-2", 10000L));
+        first.release("a.b.C$1", "node-1");
+        Assert.assertTrue(second.tryAcquire("a.b.C$1", "node-2", 10000L));
+    }
+
+    private void verify(SmartcronLeaseStore store) throws InterruptedException {
+
+        // acquire and renew
+        Assert.assertTrue(store.tryAcquire("first", "node-1", 100L));
+        Assert.assertTrue(store.tryAcquire("first", "node-1", 100L));
+        Assert.assertFalse(store.tryAcquire("first", "node-2", 100L));
+        Assert.assertTrue(store.tryAcquire("second", "node-2", 100L));
+
+        // release by other owner is ignored
+        store.release("first", "node-2");
+        Assert.assertFalse(store.tryAcquire("first", "node-2", 100L));
+
+        // release
+        store.release("first", "node-1");
+        Assert.assertTrue(store.tryAcquire("first", "node-2", 100L));
+
+        // expiry
+        Thread.sleep(150L);
+        Assert.assertTrue(store.tryAcquire("first", "node-1", 100L));
+        Assert.assertTrue(store.tryAcquire("second", "node-1", 100L));
+    }
+}
@@ -0,0 +1,235 @@
+package de.chrgroth.smartcron.journal;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.jayway.awaitility.Awaitility;
+import com.jayway.awaitility.Duration;
+
+import de.chrgroth.smartcron.SmartcronSubscription;
+import de.chrgroth.smartcron.Smartcrons;
+import de.chrgroth.smartcron.api.SmartcronExecutionContext;
+import de.chrgroth.smartcron.model.Counter;
+import de.chrgroth.smartcron.model.SmartcronEvent;
+import de.chrgroth.smartcron.model.SmartcronExecution;
+
+public class SmartcronJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+
+    @Before
+    public void setUp() {
+        directory = folder.getRoot().toPath().resolve("journal");
+    }
+
+    @Test
+    public void writeAndRead() {
+        SmartcronJournal journal = new SmartcronJournal(directory);
+        journal.onEvents(events(0, 3));
+        journal.onEvents(events(3, 2));
+        journal.close();
+
+        // check all values in order
+        List<SmartcronJournalEntry> entries = read(1L);
+        Assert.assertEquals(5, entries.size());
+        for (int i = 0; i < 5; i++) {
+            SmartcronJournalEntry entry = entries.get(i);
+            Assert.assertEquals(i + 1, entry.getSequence());
+            Assert.assertEquals("smartcron-" + i, entry.getName());
+            Assert.assertEquals(i, entry.getExecution().getStartLag());
+            Assert.assertEquals("mode", entry.getExecution().getMode());
+            Assert.assertEquals(i * 1000L, entry.getExecution().getDurationNanos());
+            Assert.assertNull(entry.getExecution().getError());
+        }
+        Assert.assertEquals(LocalDateTime.of(2020, 1, 1, 0, 0), entries.get(0).getExecution().getScheduled());
+    }
+
+    @Test
+    public void segmentRolling() throws IOException {
+        SmartcronJournal journal = new SmartcronJournal(directory, 200L, false);
+        for (int i = 0; i < 20; i++) {
+            journal.onEvents(events(i, 1));
+        }
+        journal.close();
+
+        // check segments and skipping
+        Assert.assertTrue(SmartcronJournalReader.segments(directory).size() > 3);
+        Assert.assertEquals(20, read(0L).size());
+        List<SmartcronJournalEntry> tail = read(15L);
+        Assert.assertEquals(6, tail.size());
+        Assert.assertEquals(15L, tail.get(0).getSequence());
+    }
+
+    @Test
+    public void reopenAfterTornRecord() throws IOException {
+        SmartcronJournal journal = new SmartcronJournal(directory);
+        journal.onEvents(events(0, 2));
+        journal.close();
+
+        // simulate crash during write
+        Path segment = SmartcronJournalReader.segments(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer torn = ByteBuffer.allocate(6).putInt(500).putShort((short) 1);
+            ((Buffer) torn).flip();
+            channel.write(torn);
+        }
+        Assert.assertEquals(2, read(0L).size());
+
+        // continue after last complete record
+        journal = new SmartcronJournal(directory);
+        Assert.assertEquals(3L, journal.getNextSequence());
+        journal.onEvents(events(2, 1));
+        journal.close();
+        Assert.assertEquals(3, read(0L).size());
+    }
+
+    @Test
+    public void failedWrite() throws IOException {
+        SmartcronJournal journal = new SmartcronJournal(directory);
+        journal.onEvents(events(0, 2));
+
+        // simulate failing write leaving partial bytes
+        Path segment = SmartcronJournalReader.segments(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer torn = ByteBuffer.allocate(6).putInt(500).putShort((short) 1);
+            ((Buffer) torn).flip();
+            channel.write(torn);
+        }
+
+        // partial bytes truncated before next write
+        journal.onEvents(events(2, 1));
+        journal.close();
+        Assert.assertEquals(3, read(0L).size());
+    }
+
+    @Test
+    public void dropped() {
+        SmartcronJournal journal = new SmartcronJournal(directory);
+        journal.onDropped(3L);
+        journal.onDropped(2L);
+        Assert.assertEquals(5L, journal.getDropped());
+        journal.close();
+    }
+
+    @Test
+    public void subscriptionClose() {
+        SmartcronJournal journal = new SmartcronJournal(directory);
+        Smartcrons smartcrons = new Smartcrons();
+        SmartcronSubscription subscription = smartcrons.subscribeLossless(journal, 1024, 1);
+
+        // closing delivers all buffered events
+        smartcrons.schedule(new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return counter >= 20 ? abort() : delay(1, ChronoUnit.MILLIS);
+            }
+        });
+        Awaitility.await().pollInterval(new Duration(10, TimeUnit.MILLISECONDS)).atMost(Duration.ONE_SECOND)
+                .until((Callable<Boolean>) () -> smartcrons.getMetadata().stream().noneMatch(m -> m.isActive()));
+        subscription.close();
+        smartcrons.shutdown();
+        journal.close();
+        Assert.assertEquals(20, read(0L).size());
+        Assert.assertEquals(0L, subscription.getDropped());
+    }
+
+    @Test
+    public void flooded() {
+        SmartcronJournal journal = new SmartcronJournal(directory);
+        Smartcrons smartcrons = new Smartcrons();
+        SmartcronSubscription subscription = smartcrons.subscribeLossless(journal, 4, 2);
+
+        // many more executions than buffered events, each batch synced to disk
+        for (int i = 0; i < 10; i++) {
+            smartcrons.schedule(new Counter() {
+
+                @Override
+                protected LocalDateTime calc(SmartcronExecutionContext context) {
+                    return counter >= 30 ? abort() : delay(1, ChronoUnit.MILLIS);
+                }
+            });
+        }
+        Awaitility.await().pollInterval(new Duration(10, TimeUnit.MILLISECONDS)).atMost(Duration.TEN_SECONDS)
+                .until((Callable<Boolean>) () -> smartcrons.getMetadata().stream().noneMatch(m -> m.isActive()));
+        subscription.close();
+        smartcrons.shutdown();
+        journal.close();
+
+        // every execution on disk
+        Assert.assertEquals(0L, subscription.getDropped());
+        Assert.assertEquals(0L, journal.getLost());
+        List<SmartcronJournalEntry> entries = read(0L);
+        Assert.assertEquals(300, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            Assert.assertEquals(i + 1L, entries.get(i).getSequence());
+        }
+    }
+
+    @Test
+    public void subscribed() {
+        SmartcronJournal journal = new SmartcronJournal(directory);
+        Smartcrons smartcrons = new Smartcrons();
+        SmartcronSubscription subscription = smartcrons.subscribeLossless(journal, Smartcrons.DEFAULT_SUBSCRIPTION_CAPACITY,
+                Smartcrons.DEFAULT_SUBSCRIPTION_BATCH_SIZE);
+
+        // run smartcron
+        Counter counter = new Counter() {
+
+            @Override
+            protected LocalDateTime calc(SmartcronExecutionContext context) {
+                return counter >= 3 ? abort() : delay(5, ChronoUnit.MILLIS);
+            }
+        };
+        smartcrons.schedule(counter);
+        Awaitility.await().pollInterval(new Duration(10, TimeUnit.MILLISECONDS)).atMost(Duration.ONE_SECOND)
+                .until((Callable<Boolean>) () -> subscription.getDelivered() == 4);
+        subscription.close();
+        smartcrons.shutdown();
+        journal.close();
+
+        // check executions journaled
+        List<SmartcronJournalEntry> entries = read(0L);
+        Assert.assertEquals(3, entries.size());
+        Assert.assertEquals(counter.getClass().getName(), entries.get(0).getName());
+        Assert.assertNull(entries.get(2).getExecution().getNextExecution());
+    }
+
+    private List<SmartcronJournalEntry> read(long fromSequence) {
+        try (Stream<SmartcronJournalEntry> entries = new SmartcronJournalReader(directory).read(fromSequence)) {
+            return entries.collect(Collectors.toList());
+        }
+    }
+
+    private List<SmartcronEvent> events(int from, int count) {
+        List<SmartcronEvent> events = new ArrayList<>();
+        LocalDateTime scheduled = LocalDateTime.of(2020, 1, 1, 0, 0);
+        for (int i = from; i < from + count; i++) {
+            SmartcronExecution execution = new SmartcronExecution(scheduled, scheduled.plusSeconds(1), i, 0L, 0L, "mode", i * 1000L, null, null);
+            events.add(new SmartcronEvent(SmartcronEvent.Type.EXECUTED, "smartcron-" + i, "smartcron-" + i, LocalDateTime.now(), execution));
+            events.add(new SmartcronEvent(SmartcronEvent.Type.ACTIVATED, "smartcron-" + i, "smartcron-" + i, LocalDateTime.now(), null));
+        }
+        return events;
+    }
+}
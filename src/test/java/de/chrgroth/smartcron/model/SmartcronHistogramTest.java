@@ -0,0 +1,62 @@
+package de.chrgroth.smartcron.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SmartcronHistogramTest {
+
+    @Test
+    public void empty() {
+        SmartcronHistogram histogram = new SmartcronHistogram.Recorder().snapshot();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getP50());
+        Assert.assertEquals(0, histogram.getMax());
+        Assert.assertEquals(0.0d, histogram.getMean(), 0.0d);
+    }
+
+    @Test
+    public void smallValuesExact() {
+        SmartcronHistogram.Recorder recorder = new SmartcronHistogram.Recorder();
+        for (int i = 1; i <= 10; i++) {
+            recorder.record(i);
+        }
+        SmartcronHistogram histogram = recorder.snapshot();
+        Assert.assertEquals(10, histogram.getCount());
+        Assert.assertEquals(1, histogram.getMin());
+        Assert.assertEquals(5, histogram.getP50());
+        Assert.assertEquals(9, histogram.getP90());
+        Assert.assertEquals(10, histogram.getMax());
+        Assert.assertEquals(5.5d, histogram.getMean(), 0.0d);
+    }
+
+    @Test
+    public void percentilesWithinPrecision() {
+        SmartcronHistogram.Recorder recorder = new SmartcronHistogram.Recorder();
+        for (long i = 1; i <= 100000; i++) {
+            recorder.record(i * 1000L);
+        }
+        SmartcronHistogram histogram = recorder.snapshot();
+        assertWithinPrecision(50000000L, histogram.getP50());
+        assertWithinPrecision(90000000L, histogram.getP90());
+        assertWithinPrecision(99000000L, histogram.getP99());
+        assertWithinPrecision(99900000L, histogram.getP999());
+        Assert.assertEquals(100000000L, histogram.getMax());
+        Assert.assertEquals(100000000L, histogram.getValueAtPercentile(100.0d));
+    }
+
+    @Test
+    public void largeAndNegativeValues() {
+        SmartcronHistogram.Recorder recorder = new SmartcronHistogram.Recorder();
+        recorder.record(-5L);
+        recorder.record(Long.MAX_VALUE);
+        SmartcronHistogram histogram = recorder.snapshot();
+        Assert.assertEquals(0L, histogram.getMin());
+        Assert.assertEquals(0L, histogram.getP50());
+        Assert.assertEquals(Long.MAX_VALUE, histogram.getMax());
+        Assert.assertEquals(Long.MAX_VALUE, histogram.getP99());
+    }
+
+    private void assertWithinPrecision(long expected, long actual) {
+        Assert.assertTrue(actual + " not within precision of " + expected, actual >= expected && actual <= expected * 1.0625d);
+    }
+}
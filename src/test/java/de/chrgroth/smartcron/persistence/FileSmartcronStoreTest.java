@@ -0,0 +1,146 @@
+package de.chrgroth.smartcron.persistence;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.chrgroth.smartcron.model.SmartcronHistogram;
+import de.chrgroth.smartcron.model.SmartcronMetadata;
+import de.chrgroth.smartcron.model.SmartcronStatistics;
+
+public class FileSmartcronStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path file;
+    private FileSmartcronStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        file = folder.getRoot().toPath().resolve("smartcrons.store");
+        store = new FileSmartcronStore(file);
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+    }
+
+    @Test
+    public void roundtrip() {
+        LocalDateTime scheduled = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        store.save(Arrays.asList(metadata("first", scheduled, 3), metadata("second", null, 5)));
+        store.save(Collections.singletonList(metadata("first", scheduled.plusHours(1), 4)));
+        reopen();
+
+        // check latest state restored
+        Map<String, SmartcronMetadata> loaded = store.load();
+        Assert.assertEquals(2, loaded.size());
+        SmartcronMetadata first = loaded.get("first");
+        Assert.assertTrue(first.isActive());
+        Assert.assertEquals(scheduled.plusHours(1), first.getScheduled());
+        Assert.assertEquals(4, first.getStatistics().getCount());
+        Assert.assertEquals(1, first.getStatistics().getErrors());
+        Assert.assertEquals(2, first.getStatistics().getMisfires());
+        Assert.assertEquals(4000L, first.getStatistics().getDurations().getMax());
+        Assert.assertEquals(4, first.getStatisticsPerMode().get("mode").getCount());
+        Assert.assertTrue(first.getHistory().isEmpty());
+        Assert.assertNull(loaded.get("second").getScheduled());
+    }
+
+    @Test
+    public void remove() {
+        store.save(Arrays.asList(metadata("first", null, 1), metadata("second", null, 1)));
+        store.remove("first");
+        reopen();
+        Assert.assertEquals(Collections.singleton("second"), store.load().keySet());
+    }
+
+    @Test
+    public void tornRecord() throws IOException {
+        store.save(Collections.singletonList(metadata("first", null, 1)));
+        store.close();
+
+        // simulate crash during write
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer torn = ByteBuffer.allocate(12).putInt(100).putLong(42L);
+            ((Buffer) torn).flip();
+            channel.write(torn);
+        }
+
+        // torn record dropped and truncated
+        store = new FileSmartcronStore(file);
+        Assert.assertEquals(1, store.load().size());
+        Assert.assertEquals(size, Files.size(file));
+        store.save(Collections.singletonList(metadata("second", null, 1)));
+        reopen();
+        Assert.assertEquals(2, store.load().size());
+    }
+
+    @Test
+    public void corruptLength() throws IOException {
+        store.save(Collections.singletonList(metadata("first", null, 1)));
+        store.close();
+
+        // simulate corrupt record length
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer corrupt = ByteBuffer.allocate(12).putInt(Integer.MAX_VALUE).putLong(42L);
+            ((Buffer) corrupt).flip();
+            channel.write(corrupt);
+        }
+
+        // corrupt record dropped and truncated
+        store = new FileSmartcronStore(file);
+        Assert.assertEquals(1, store.load().size());
+        Assert.assertEquals(size, Files.size(file));
+    }
+
+    @Test
+    public void compaction() throws IOException {
+        for (int i = 0; i < 2000; i++) {
+            store.save(Collections.singletonList(metadata("first", null, 10)));
+        }
+
+        // file size bounded by live records
+        Assert.assertTrue(Files.size(file) < 128 * 1024);
+        reopen();
+        Assert.assertEquals(1, store.load().size());
+        Assert.assertEquals(10, store.load().get("first").getStatistics().getCount());
+    }
+
+    private void reopen() {
+        store.close();
+        store = new FileSmartcronStore(file);
+    }
+
+    private SmartcronMetadata metadata(String name, LocalDateTime scheduled, int count) {
+        SmartcronHistogram.Recorder durations = new SmartcronHistogram.Recorder();
+        for (int i = 1; i <= count; i++) {
+            durations.record(i * 1000L);
+        }
+        SmartcronStatistics statistics = new SmartcronStatistics(count, 1, 0.0d, durations.snapshot(), SmartcronHistogram.empty(), 2);
+        Map<String, SmartcronStatistics> statisticsPerMode = new HashMap<>();
+        statisticsPerMode.put("mode", statistics);
+        return new SmartcronMetadata(name, name, 0L, scheduled != null, scheduled, statistics, statisticsPerMode, Collections.emptyList());
+    }
+}
@@ -0,0 +1,115 @@
+package de.chrgroth.smartcron.scheduler;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.jayway.awaitility.Awaitility;
+import com.jayway.awaitility.Duration;
+
+public class TimingWheelSmartcronSchedulerTest {
+
+    private TimingWheelSmartcronScheduler scheduler;
+    private SmartcronSchedulerLane lane;
+
+    @Before
+    public void setUp() {
+
+        // small wheels to force usage of overflow wheels
+        scheduler = new TimingWheelSmartcronScheduler(1L, 8);
+        lane = scheduler.createLane("test");
+    }
+
+    @Test
+    public void executeImmediately() {
+        AtomicInteger counter = new AtomicInteger();
+        lane.schedule(task(() -> counter.incrementAndGet()), 0L);
+        lane.schedule(task(() -> counter.incrementAndGet()), -10L);
+        Awaitility.await().atMost(Duration.ONE_SECOND).until((Callable<Boolean>) () -> counter.get() == 2);
+    }
+
+    @Test
+    public void executeInOrder() {
+        List<Long> executed = new CopyOnWriteArrayList<>();
+        long[] delays = new long[] { 250L, 5L, 90L, 30L, 500L };
+        for (long delay : delays) {
+            lane.schedule(task(() -> executed.add(delay)), delay);
+        }
+        Awaitility.await().atMost(Duration.TWO_SECONDS).until((Callable<Boolean>) () -> executed.size() == delays.length);
+        for (int i = 1; i < executed.size(); i++) {
+            Assert.assertTrue(executed.get(i - 1) < executed.get(i));
+        }
+    }
+
+    @Test
+    public void executeNotBeforeDelay() {
+        long started = System.nanoTime();
+        AtomicInteger elapsed = new AtomicInteger(-1);
+        lane.schedule(task(() -> elapsed.set((int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started))), 100L);
+        Awaitility.await().atMost(Duration.ONE_SECOND).until((Callable<Boolean>) () -> elapsed.get() >= 0);
+        Assert.assertTrue(elapsed.get() >= 100);
+    }
+
+    @Test
+    public void executeNotBeforeDelayRoundedUp() {
+        scheduler.shutdown();
+        scheduler = new TimingWheelSmartcronScheduler(10L, 4);
+        lane = scheduler.createLane("test");
+
+        // all delays not aligned to tick and partially passed to overflow wheels
+        long[] delays = new long[] { 1L, 9L, 11L, 25L, 41L, 95L };
+        List<Long> early = new CopyOnWriteArrayList<>();
+        AtomicInteger executed = new AtomicInteger();
+        for (long delay : delays) {
+            long due = TimingWheel.currentMillis() + delay;
+            lane.schedule(task(() -> {
+                if (TimingWheel.currentMillis() < due) {
+                    early.add(delay);
+                }
+                executed.incrementAndGet();
+            }), delay);
+        }
+        Awaitility.await().atMost(Duration.ONE_SECOND).until((Callable<Boolean>) () -> executed.get() == delays.length);
+        Assert.assertEquals(0, early.size());
+    }
+
+    @Test
+    public void cancel() throws InterruptedException {
+        AtomicInteger counter = new AtomicInteger();
+        SmartcronTask cancelled = task(() -> counter.incrementAndGet());
+        lane.schedule(cancelled, 50L);
+        lane.schedule(task(() -> counter.addAndGet(10)), 100L);
+        Assert.assertTrue(cancelled.cancel());
+        Assert.assertFalse(cancelled.cancel());
+        Awaitility.await().atMost(Duration.ONE_SECOND).until((Callable<Boolean>) () -> counter.get() >= 10);
+        Thread.sleep(50L);
+        Assert.assertEquals(10, counter.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidTick() {
+        new TimingWheelSmartcronScheduler(0L);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    private SmartcronTask task(Runnable runnable) {
+        return new SmartcronTask() {
+
+            @Override
+            protected void execute() {
+                runnable.run();
+            }
+        };
+    }
+}